@@ -0,0 +1,119 @@
+package ru.javabruse.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebDriver;
+import ru.javabruse.pages.WikipediaPage;
+import ru.javabruse.utils.BrowserProfile;
+import ru.javabruse.utils.StubWikipediaServer;
+import ru.javabruse.utils.WebDriverFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки операций {@link WikipediaPage} против локальной имитации Википедии
+ * в Chrome без окна. Каждая операция измеряется для каждой стратегии ожидания.
+ *
+ * <p>Запуск: {@code mvn -Pbenchmark compile exec:exec}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dinstrumentation.enabled=false")
+public class WikipediaPageBenchmark {
+
+    private static final String SEARCH_QUERY = "Россия";
+
+    /**
+     * Браузер и имитация Википедии, общие для всех итераций.
+     */
+    @State(Scope.Benchmark)
+    public static class Browser {
+
+        /**
+         * Стратегия явных ожиданий: интервал опроса WebDriverWait по умолчанию или частый опрос.
+         */
+        @Param({"default-500ms", "fast-poll-50ms"})
+        public String waitStrategy;
+
+        StubWikipediaServer server;
+        WebDriver driver;
+        WikipediaPage page;
+
+        @Setup(Level.Trial)
+        public void start() {
+            server = new StubWikipediaServer();
+            System.setProperty("wikipedia.base.url", server.getBaseUrl());
+            driver = WebDriverFactory.createChromeDriver(BrowserProfile.LEAN);
+            page = new WikipediaPage(driver, pollIntervalOf(waitStrategy));
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            driver.quit();
+            server.close();
+        }
+
+        private static Duration pollIntervalOf(String strategy) {
+            return "fast-poll-50ms".equals(strategy) ? Duration.ofMillis(50) : Duration.ofMillis(500);
+        }
+    }
+
+    /**
+     * Перед каждым вызовом открывает главную страницу.
+     */
+    @State(Scope.Thread)
+    public static class OnMainPage {
+
+        @Setup(Level.Invocation)
+        public void openMainPage(Browser browser) {
+            browser.page.open();
+        }
+    }
+
+    /**
+     * Один раз за итерацию открывает статью.
+     */
+    @State(Scope.Thread)
+    public static class OnArticle {
+
+        @Setup(Level.Iteration)
+        public void openArticle(Browser browser) {
+            browser.page.open();
+            browser.page.search(SEARCH_QUERY);
+        }
+    }
+
+    @Benchmark
+    public void search(Browser browser, OnMainPage mainPage) {
+        browser.page.search(SEARCH_QUERY);
+    }
+
+    @Benchmark
+    public void openRandomArticle(Browser browser, OnMainPage mainPage) {
+        browser.page.openRandomArticle();
+    }
+
+    @Benchmark
+    public String getArticleTitle(Browser browser, OnArticle article) {
+        return browser.page.getArticleTitle();
+    }
+
+    @Benchmark
+    public boolean isSearchAvailable(Browser browser, OnArticle article) {
+        return browser.page.isSearchAvailable();
+    }
+}
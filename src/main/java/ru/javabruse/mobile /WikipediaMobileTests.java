@@ -2,42 +2,77 @@ package ru.javabruse.mobile;
 
 import io.appium.java_client.android.AndroidDriver;
 import org.testng.Assert;
+import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import ru.javabruse.pages.WikipediaAppPage;
+import ru.javabruse.utils.AndroidAppSession;
+import ru.javabruse.utils.AndroidDevicePool;
+import ru.javabruse.utils.ConditionWait;
+import ru.javabruse.utils.FailureArtifacts;
+import ru.javabruse.utils.HealthGate;
+import ru.javabruse.utils.ThreadSession;
 import ru.javabruse.utils.WebDriverFactory;
 
+import java.time.Duration;
+
 /**
  * Тесты для мобильного приложения Wikipedia на Android.
  * Проверяют основные функции поиска и навигации.
+ * Каждый поток арендует устройство из {@link AndroidDevicePool}, поэтому в профиле
+ * {@code parallel} тесты выполняются одновременно на всех устройствах пула.
+ * На каждом устройстве тесты работают в одной сессии Appium, приложение сбрасывается между тестами.
  */
 public class WikipediaMobileTests {
 
-    private static final int INITIAL_WAIT_MS = 3000;
-    private static final int SHORT_WAIT_MS = 2000;
-    private static final int ARTICLE_LOAD_WAIT_MS = 3000;
+    private static final Duration DEVICE_LEASE_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final ThreadSession<AndroidDriver, WikipediaAppPage> SESSION = new ThreadSession<>();
+    private static final ThreadLocal<AndroidAppSession> APP_SESSION = new ThreadLocal<>();
 
-    private AndroidDriver driver;
-    private WikipediaAppPage wikipediaApp;
+    // Onboarding пропускается один раз для нового состояния приложения, а не в каждом тесте
+    private static final AndroidDevicePool DEVICE_POOL = AndroidDevicePool.discover(device -> new AndroidAppSession(
+            () -> WebDriverFactory.createAndroidDriver(device), WebDriverFactory.WIKIPEDIA_PACKAGE,
+            driver -> new WikipediaAppPage(driver).skipOnboarding()));
 
     @BeforeMethod
-    public void setUp() throws Exception {
-        driver = WebDriverFactory.createAndroidDriver();
-        wikipediaApp = new WikipediaAppPage(driver);
-        Thread.sleep(INITIAL_WAIT_MS);
+    public void setUp() {
+        HealthGate.require(HealthGate.Dependency.APPIUM, HealthGate.Dependency.EMULATOR);
+        AndroidAppSession appSession = DEVICE_POOL.lease(DEVICE_LEASE_TIMEOUT);
+        APP_SESSION.set(appSession);
+        AndroidDriver driver = appSession.acquire();
+        SESSION.bind(driver, WikipediaAppPage::new).waitForMainScreen();
     }
 
-    @AfterMethod
-    public void tearDown() {
-        if (driver != null) {
-            driver.quit();
+    @AfterMethod(alwaysRun = true)
+    public void tearDown(ITestResult result) {
+        HealthGate.recordResult(result, HealthGate.Dependency.APPIUM, HealthGate.Dependency.EMULATOR);
+        AndroidDriver driver = SESSION.unbind();
+        if (driver != null && !result.isSuccess()) {
+            FailureArtifacts.save(FailureArtifacts.grab(driver, result.getMethod().getMethodName()));
         }
+        AndroidAppSession appSession = APP_SESSION.get();
+        APP_SESSION.remove();
+        // Сессия, которую не удалось подготовить, тоже очищается перед следующим тестом
+        DEVICE_POOL.release(appSession, driver != null && result.isSuccess());
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void printWaitStatistics() {
+        DEVICE_POOL.shutdown();
+        FailureArtifacts.flush();
+        System.out.println("[TEST LOG] " + ConditionWait.report());
+    }
+
+    private WikipediaAppPage wikipediaApp() {
+        return SESSION.page();
     }
 
     @Test(priority = 1)
     public void searchFieldShouldBeVisibleOnMainScreen() {
-        boolean isSearchFieldDisplayed = wikipediaApp.isSearchContainerDisplayed();
+        boolean isSearchFieldDisplayed = wikipediaApp().isSearchContainerDisplayed();
         
         logTestStep("Поисковое поле отображается: " + isSearchFieldDisplayed);
         Assert.assertTrue(isSearchFieldDisplayed, 
@@ -45,32 +80,39 @@ public class WikipediaMobileTests {
     }
 
     @Test(priority = 2)
-    public void shouldOpenArticleWhenSearchingForAppium() throws InterruptedException {
-        wikipediaApp.searchArticle("Appium");
-        waitForArticleToLoad();
+    public void shouldOpenArticleWhenSearchingForAppium() {
+        wikipediaApp().searchArticle("Appium");
 
-        String articleTitle = wikipediaApp.getArticleTitle();
+        String articleTitle = wikipediaApp().getArticleTitle();
         logTestStep("Заголовок статьи: '" + articleTitle + "'");
 
         validateArticleTitle(articleTitle, "Appium");
     }
 
     @Test(priority = 3)
-    public void shouldReturnToMainScreenAfterOpeningArticle() throws InterruptedException {
-        wikipediaApp.searchArticle("Selenium");
-        waitForArticleToLoad();
+    public void shouldReturnToMainScreenAfterOpeningArticle() {
+        wikipediaApp().searchArticle("Selenium");
 
-        String articleTitle = wikipediaApp.getArticleTitle();
+        String articleTitle = wikipediaApp().getArticleTitle();
         logTestStep("Открыта статья: " + articleTitle);
 
-        wikipediaApp.navigateBack();
-        Thread.sleep(SHORT_WAIT_MS);
+        wikipediaApp().navigateBack();
 
-        boolean isMainScreenDisplayed = wikipediaApp.isSearchContainerDisplayed();
+        boolean isMainScreenDisplayed = wikipediaApp().isSearchContainerDisplayed();
         Assert.assertTrue(isMainScreenDisplayed, 
                          "После возврата должен отображаться главный экран с поисковым полем");
     }
 
+    @Test(priority = 4)
+    public void shouldOpenArticleByDeepLink() {
+        wikipediaApp().openArticle("Selenium");
+
+        String articleTitle = wikipediaApp().getArticleTitle();
+        logTestStep("Статья по ссылке: '" + articleTitle + "'");
+
+        validateArticleTitle(articleTitle, "Selenium");
+    }
+
     /**
      * Проверяет, что заголовок статьи соответствует ожидаемому ключевому слову.
      * 
@@ -96,12 +138,4 @@ public class WikipediaMobileTests {
     private void logTestStep(String message) {
         System.out.println("[TEST LOG] " + message);
     }
-
-    /**
-     * Ожидает загрузки статьи.
-     * Использует стандартное время ожидания загрузки статьи.
-     */
-    private void waitForArticleToLoad() throws InterruptedException {
-        Thread.sleep(ARTICLE_LOAD_WAIT_MS);
-    }
 }
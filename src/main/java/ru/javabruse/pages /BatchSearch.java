@@ -0,0 +1,206 @@
+package ru.javabruse.pages;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WindowType;
+import ru.javabruse.utils.TestEnvironment;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Конвейер пакетного поиска в нескольких вкладках одной сессии браузера.
+ *
+ * <p>Навигация запускается скриптом и не блокирует драйвер, поэтому страницы
+ * во всех вкладках загружаются одновременно. Конвейер по кругу опрашивает вкладки,
+ * забирает заголовок из загрузившейся и сразу отправляет в нее следующий запрос.
+ * Ошибка или тайм-аут во вкладке завершает только ее запрос.
+ */
+class BatchSearch {
+
+    private static final Duration IDLE_ROUND_PAUSE = Duration.ofMillis(50);
+
+    private static final String NAVIGATE_SCRIPT =
+            "document.documentElement.setAttribute('data-batch-stale', '1');"
+                    + "window.location.href = arguments[0];";
+
+    private static final String READ_TITLE_SCRIPT =
+            "var root = document.documentElement;"
+                    + "if (!root || root.hasAttribute('data-batch-stale') || document.readyState === 'loading') {"
+                    + "  return null;"
+                    + "}"
+                    + "var heading = document.getElementById('firstHeading');"
+                    + "return heading ? heading.textContent.trim() : null;";
+
+    private final WebDriver driver;
+    private final int maxTabs;
+    private final Duration queryTimeout;
+
+    BatchSearch(WebDriver driver, int maxTabs, Duration queryTimeout) {
+        if (maxTabs < 1) {
+            throw new IllegalArgumentException("Количество вкладок должно быть положительным: " + maxTabs);
+        }
+        this.driver = driver;
+        this.maxTabs = maxTabs;
+        this.queryTimeout = queryTimeout;
+    }
+
+    /**
+     * Выполняет все запросы и возвращает результаты в порядке запросов.
+     * После завершения дополнительные вкладки закрываются, а драйвер
+     * возвращается на исходную вкладку.
+     */
+    List<SearchResult> run(List<String> queries) {
+        SearchResult[] results = new SearchResult[queries.size()];
+        Iterator<Integer> pending = indexIterator(queries.size());
+        String originalHandle = driver.getWindowHandle();
+        List<Tab> tabs = new ArrayList<>();
+
+        try {
+            while (!tabs.isEmpty() || pending.hasNext()) {
+                while (tabs.size() < maxTabs && pending.hasNext()) {
+                    Tab tab = openTab(queries, results, pending.next());
+                    if (tab != null) {
+                        tabs.add(tab);
+                    }
+                }
+
+                boolean progress = false;
+                for (Iterator<Tab> iterator = tabs.iterator(); iterator.hasNext(); ) {
+                    Tab tab = iterator.next();
+                    if (!poll(tab, queries, results)) {
+                        continue;
+                    }
+                    progress = true;
+                    if (tab.broken || !pending.hasNext() || !navigate(tab, pending.next(), queries, results)) {
+                        // Лишняя или сломанная вкладка закрывается, вместо сломанной откроется новая
+                        closeQuietly(tab);
+                        iterator.remove();
+                    }
+                }
+                if (!progress && !tabs.isEmpty()) {
+                    pause();
+                }
+            }
+        } finally {
+            tabs.forEach(this::closeQuietly);
+            driver.switchTo().window(originalHandle);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Проверяет вкладку.
+     *
+     * @return {@code true}, если запрос вкладки завершен (успешно, с ошибкой или по тайм-ауту)
+     */
+    private boolean poll(Tab tab, List<String> queries, SearchResult[] results) {
+        String query = queries.get(tab.queryIndex);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - tab.startNanos);
+        try {
+            driver.switchTo().window(tab.handle);
+            Object title = ((JavascriptExecutor) driver).executeScript(READ_TITLE_SCRIPT);
+            if (title != null && !title.toString().isEmpty()) {
+                results[tab.queryIndex] = SearchResult.found(query, title.toString(), elapsed);
+                return true;
+            }
+        } catch (WebDriverException e) {
+            results[tab.queryIndex] = SearchResult.failed(query, e.getClass().getSimpleName()
+                    + ": " + firstLine(e.getMessage()), elapsed);
+            tab.broken = true;
+            return true;
+        }
+        if (elapsed.compareTo(queryTimeout) >= 0) {
+            results[tab.queryIndex] = SearchResult.failed(query,
+                    "Заголовок не появился за " + queryTimeout.toMillis() + " мс", elapsed);
+            return true;
+        }
+        return false;
+    }
+
+    private Tab openTab(List<String> queries, SearchResult[] results, int index) {
+        Tab tab = new Tab();
+        try {
+            driver.switchTo().newWindow(WindowType.TAB);
+            tab.handle = driver.getWindowHandle();
+        } catch (WebDriverException e) {
+            results[index] = SearchResult.failed(queries.get(index),
+                    "Не удалось открыть вкладку: " + firstLine(e.getMessage()), Duration.ZERO);
+            return null;
+        }
+        if (!navigate(tab, index, queries, results)) {
+            closeQuietly(tab);
+            return null;
+        }
+        return tab;
+    }
+
+    private boolean navigate(Tab tab, int index, List<String> queries, SearchResult[] results) {
+        tab.queryIndex = index;
+        tab.startNanos = System.nanoTime();
+        try {
+            ((JavascriptExecutor) driver).executeScript(NAVIGATE_SCRIPT, searchUrl(queries.get(index)));
+            return true;
+        } catch (WebDriverException e) {
+            results[index] = SearchResult.failed(queries.get(index), firstLine(e.getMessage()),
+                    Duration.ofNanos(System.nanoTime() - tab.startNanos));
+            return false;
+        }
+    }
+
+    private void closeQuietly(Tab tab) {
+        try {
+            driver.switchTo().window(tab.handle);
+            driver.close();
+        } catch (WebDriverException e) {
+            // Вкладка уже закрыта
+        }
+    }
+
+    private static String searchUrl(String query) {
+        return TestEnvironment.wikipediaBaseUrl() + "w/index.php?search="
+                + URLEncoder.encode(query, StandardCharsets.UTF_8);
+    }
+
+    private static Iterator<Integer> indexIterator(int size) {
+        List<Integer> indexes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            indexes.add(i);
+        }
+        return indexes.iterator();
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "";
+        }
+        int end = message.indexOf('\n');
+        return end < 0 ? message : message.substring(0, end);
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(IDLE_ROUND_PAUSE.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Пакетный поиск прерван", e);
+        }
+    }
+
+    /**
+     * Вкладка конвейера и запрос, который в ней выполняется.
+     */
+    private static final class Tab {
+
+        private String handle;
+        private int queryIndex;
+        private long startNanos;
+        private boolean broken;
+    }
+}
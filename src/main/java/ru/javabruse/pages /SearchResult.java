@@ -0,0 +1,66 @@
+package ru.javabruse.pages;
+
+import java.time.Duration;
+
+/**
+ * Результат одного поискового запроса из пакетного поиска.
+ * Содержит либо заголовок найденной статьи, либо описание ошибки.
+ */
+public final class SearchResult {
+
+    private final String query;
+    private final String title;
+    private final String error;
+    private final Duration elapsed;
+
+    private SearchResult(String query, String title, String error, Duration elapsed) {
+        this.query = query;
+        this.title = title;
+        this.error = error;
+        this.elapsed = elapsed;
+    }
+
+    public static SearchResult found(String query, String title, Duration elapsed) {
+        return new SearchResult(query, title, null, elapsed);
+    }
+
+    public static SearchResult failed(String query, String error, Duration elapsed) {
+        return new SearchResult(query, null, error, elapsed);
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Заголовок статьи или {@code null}, если запрос завершился ошибкой.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Описание ошибки или {@code null}, если заголовок получен.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Время от отправки запроса до получения заголовка или ошибки.
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccessful()
+                ? String.format("'%s' -> '%s' (%d мс)", query, title, elapsed.toMillis())
+                : String.format("'%s' -> ошибка: %s (%d мс)", query, error, elapsed.toMillis());
+    }
+}
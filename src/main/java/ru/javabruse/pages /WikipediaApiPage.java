@@ -0,0 +1,235 @@
+package ru.javabruse.pages;
+
+import org.openqa.selenium.json.Json;
+import ru.javabruse.utils.LatencyRecorder;
+import ru.javabruse.utils.TestEnvironment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP-реализация {@link WikipediaSearch} без браузера.
+ *
+ * <p>Поиск и заголовки определяются через MediaWiki API ({@code w/api.php}) по адресу
+ * из {@link TestEnvironment}, поэтому проверки данных выполняются за один HTTP-запрос
+ * вместо полной отрисовки страницы. Все экземпляры используют общий {@link HttpClient}
+ * с переиспользованием соединений. Подходит только для проверок содержимого:
+ * элементы интерфейса этот класс не проверяет.
+ */
+public class WikipediaApiPage implements WikipediaSearch {
+
+    public static final String SEARCH_RESULTS_TITLE = "Результаты поиска";
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(15);
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+    private static final String USER_AGENT = "wikipedia-test-automation/1.0 (HTTP fast path)";
+
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(REQUEST_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private final String baseUrl;
+    private String currentTitle;
+
+    public WikipediaApiPage() {
+        this(TestEnvironment.wikipediaBaseUrl());
+    }
+
+    /**
+     * @param baseUrl базовый адрес MediaWiki со слешем в конце
+     */
+    public WikipediaApiPage(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public void open() {
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaApiPage.open")) {
+            Map<String, Object> response = query("action=query&meta=siteinfo&siprop=general");
+            Map<?, ?> general = (Map<?, ?>) ((Map<?, ?>) response.get("query")).get("general");
+            currentTitle = String.valueOf(general.get("mainpage"));
+        }
+    }
+
+    @Override
+    public void search(String searchQuery) {
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaApiPage.search")) {
+            currentTitle = resolveTitle(get(titleQueryUrl(searchQuery)));
+        }
+    }
+
+    /**
+     * Выполняет запросы параллельно, не более {@value #DEFAULT_MAX_CONCURRENT_REQUESTS} одновременно.
+     * Не блокирует вызывающий поток: запросы распределяются по цепочкам, и каждая цепочка
+     * отправляет следующий запрос после ответа на предыдущий. Ошибка отдельного запроса,
+     * в том числе при его формировании, попадает в его {@link SearchResult}.
+     *
+     * @return результаты в порядке запросов
+     */
+    public CompletableFuture<List<SearchResult>> searchAllAsync(Collection<String> searchQueries) {
+        List<String> queries = new ArrayList<>(searchQueries);
+        SearchResult[] results = new SearchResult[queries.size()];
+        AtomicInteger nextQuery = new AtomicInteger();
+        int lanes = Math.min(DEFAULT_MAX_CONCURRENT_REQUESTS, queries.size());
+        CompletableFuture<?>[] laneFutures = new CompletableFuture<?>[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            laneFutures[lane] = searchNext(queries, results, nextQuery);
+        }
+        return CompletableFuture.allOf(laneFutures).thenApply(done -> Arrays.asList(results));
+    }
+
+    /**
+     * Берет следующий невыполненный запрос пакета и после ответа переходит к следующему.
+     * Продолжение выполняется асинхронно, чтобы мгновенно завершенные запросы
+     * не наращивали стек вызовов.
+     */
+    private CompletableFuture<Void> searchNext(List<String> queries, SearchResult[] results, AtomicInteger nextQuery) {
+        int index = nextQuery.getAndIncrement();
+        if (index >= queries.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return searchAsync(queries.get(index)).thenComposeAsync(result -> {
+            results[index] = result;
+            return searchNext(queries, results, nextQuery);
+        });
+    }
+
+    private CompletableFuture<SearchResult> searchAsync(String searchQuery) {
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> response;
+        try {
+            response = HTTP_CLIENT.sendAsync(request(titleQueryUrl(searchQuery)),
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.handle((httpResponse, error) -> {
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            if (error != null) {
+                return SearchResult.failed(searchQuery, error.toString(), elapsed);
+            }
+            if (httpResponse.statusCode() != 200) {
+                return SearchResult.failed(searchQuery, "HTTP " + httpResponse.statusCode(), elapsed);
+            }
+            try {
+                return SearchResult.found(searchQuery, resolveTitle(parse(httpResponse.body())), elapsed);
+            } catch (RuntimeException e) {
+                return SearchResult.failed(searchQuery, e.toString(), elapsed);
+            }
+        });
+    }
+
+    @Override
+    public String getArticleTitle() {
+        if (currentTitle == null) {
+            throw new IllegalStateException("Статья не открыта: сначала вызовите open() или search()");
+        }
+        return currentTitle;
+    }
+
+    @Override
+    public void openRandomArticle() {
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaApiPage.openRandomArticle")) {
+            Map<String, Object> response = query("action=query&list=random&rnnamespace=0&rnlimit=1");
+            List<?> random = (List<?>) ((Map<?, ?>) response.get("query")).get("random");
+            currentTitle = String.valueOf(((Map<?, ?>) random.get(0)).get("title"));
+        }
+    }
+
+    /**
+     * Проверяет, что API поиска отвечает.
+     */
+    @Override
+    public boolean isSearchAvailable() {
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaApiPage.isSearchAvailable")) {
+            return query("action=opensearch&search=" + encode("а") + "&limit=1") != null;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Определяет заголовок так же, как переход по поиску в браузере:
+     * существующая статья (с учетом перенаправлений) или страница результатов поиска.
+     */
+    private static String resolveTitle(Map<String, Object> response) {
+        Map<?, ?> query = (Map<?, ?>) response.get("query");
+        if (query == null) {
+            return SEARCH_RESULTS_TITLE;
+        }
+        List<?> pages = (List<?>) query.get("pages");
+        if (pages == null || pages.isEmpty()) {
+            return SEARCH_RESULTS_TITLE;
+        }
+        Map<?, ?> page = (Map<?, ?>) pages.get(0);
+        if (Boolean.TRUE.equals(page.get("missing")) || Boolean.TRUE.equals(page.get("invalid"))) {
+            return SEARCH_RESULTS_TITLE;
+        }
+        return String.valueOf(page.get("title"));
+    }
+
+    private String titleQueryUrl(String searchQuery) {
+        return apiUrl("action=query&redirects=1&titles=" + encode(searchQuery.trim()));
+    }
+
+    private Map<String, Object> query(String parameters) {
+        return get(apiUrl(parameters));
+    }
+
+    private String apiUrl(String parameters) {
+        return baseUrl + "w/api.php?format=json&formatversion=2&" + parameters;
+    }
+
+    private Map<String, Object> get(String url) {
+        try {
+            HttpResponse<String> response = HTTP_CLIENT.send(request(url),
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("HTTP " + response.statusCode() + " для " + url);
+            }
+            return parse(response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка запроса " + url, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Запрос прерван: " + url, e);
+        }
+    }
+
+    private static HttpRequest request(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("User-Agent", USER_AGENT)
+                .GET()
+                .build();
+    }
+
+    private static Map<String, Object> parse(String body) {
+        String json = body.trim();
+        if (json.startsWith("[")) {
+            // Ответ opensearch — массив, достаточно факта успешного разбора
+            new Json().toType(json, Object.class);
+            return Map.of();
+        }
+        return new Json().toType(json, Json.MAP_TYPE);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -4,24 +4,35 @@ import io.appium.java_client.AppiumBy;
 import io.appium.java_client.android.AndroidDriver;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-
+import ru.javabruse.utils.ConditionWait;
+import ru.javabruse.utils.ElementProbe;
+import ru.javabruse.utils.LatencyRecorder;
+import ru.javabruse.utils.PageSourceSnapshot;
+import ru.javabruse.utils.TestEnvironment;
+import ru.javabruse.utils.WebDriverFactory;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Page Object для главной страницы Wikipedia Android приложения.
  * Инкапсулирует взаимодействие с элементами интерфейса.
+ * Вместо фиксированных пауз ожидает конкретные условия через {@link ConditionWait}.
+ * Проверки видимости и чтение заголовка выполняются локально по {@link PageSourceSnapshot},
+ * который запрашивается один раз на состояние экрана и сбрасывается после каждого действия.
  */
 public class WikipediaAppPage {
 
     private static final Duration WAIT_TIMEOUT = Duration.ofSeconds(5);
-    private static final Duration SHORT_DELAY = Duration.ofMillis(1000);
-    private static final Duration MEDIUM_DELAY = Duration.ofMillis(2000);
-    private static final Duration LONG_DELAY = Duration.ofMillis(3000);
+    private static final Duration SEARCH_RESULTS_TIMEOUT = Duration.ofSeconds(10);
+    private static final String TEXT_VIEW_CLASS = "android.widget.TextView";
+    private static final String ARTICLE_PATH = "wiki/";
 
     private final AndroidDriver driver;
-    private final WebDriverWait wait;
+    private PageSourceSnapshot screen;
 
     // Локаторы элементов
     private final By searchContainer = By.id("org.wikipedia.alpha:id/search_container");
@@ -34,52 +45,88 @@ public class WikipediaAppPage {
 
     public WikipediaAppPage(AndroidDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, WAIT_TIMEOUT);
     }
 
     /**
      * Пропускает экран onboarding, если он отображается.
+     * Ожидает появления либо onboarding, либо главного экрана.
+     * Нужен только после первого запуска приложения или очистки его данных.
      */
     public void skipOnboarding() {
-        clickIfPresent(skipOnboardingButton, MEDIUM_DELAY);
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaAppPage.skipOnboarding")) {
+            By visibleScreen = ConditionWait.poll("главный экран или onboarding", WAIT_TIMEOUT,
+                    () -> fromScreen(snapshot -> {
+                        if (snapshot.isDisplayed(skipOnboardingButton)) {
+                            return skipOnboardingButton;
+                        }
+                        return snapshot.isDisplayed(searchContainer) ? searchContainer : null;
+                    })).orElse(null);
+
+            if (skipOnboardingButton.equals(visibleScreen)) {
+                clickIfPresent(skipOnboardingButton);
+            }
+        }
     }
 
     /**
      * Закрывает всплывающее окно, если оно отображается.
+     * Кнопка закрытия проверяется одним вызовом {@code findElements} без ожидания:
+     * обычно всплывающего окна нет, и проверка не должна задерживать тест.
      */
     public void closePopupIfPresent() {
-        clickIfPresent(closePopupButton, SHORT_DELAY);
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaAppPage.closePopupIfPresent")) {
+            ElementProbe.find(driver, closePopupButton).ifPresent(closeButton -> perform(closeButton::click));
+        }
     }
 
-    private void clickIfPresent(By locator, Duration delayBeforeCheck) {
-        try {
-            Thread.sleep(delayBeforeCheck.toMillis());
-            if (isElementPresent(locator)) {
-                driver.findElement(locator).click();
-                Thread.sleep(SHORT_DELAY.toMillis());
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private void clickIfPresent(By locator) {
+        if (fromScreen(snapshot -> snapshot.find(locator).orElse(null)) != null) {
+            perform(() -> ElementProbe.find(driver, locator).ifPresent(WebElement::click));
         }
     }
 
-    private boolean isElementPresent(By locator) {
+    /**
+     * Выполняет действие, которое меняет экран, и сбрасывает снимок экрана.
+     */
+    private void perform(Runnable action) {
         try {
-            driver.findElement(locator);
-            return true;
-        } catch (Exception e) {
-            return false;
+            action.run();
+        } finally {
+            screen = null;
+        }
+    }
+
+    /**
+     * Выполняет запрос к снимку экрана. Снимок запрашивается заново, если его нет
+     * или если в сохраненном снимке запрос не дал результата: экран мог измениться сам.
+     *
+     * @return результат запроса или {@code null}
+     */
+    private <T> T fromScreen(Function<PageSourceSnapshot, T> query) {
+        if (screen != null) {
+            T value = query.apply(screen);
+            if (value != null) {
+                return value;
+            }
         }
+        screen = PageSourceSnapshot.capture(driver);
+        return query.apply(screen);
+    }
+
+    private WebElement waitForDisplayed(String description, By locator, Duration timeout) {
+        return ConditionWait.until(description, timeout, () -> ElementProbe.find(driver, locator)
+                .filter(WebElement::isDisplayed)
+                .orElse(null));
     }
 
     /**
      * Проверяет, отображается ли контейнер поиска на главной странице.
      */
     public boolean isSearchContainerDisplayed() {
-        try {
-            skipOnboarding();
-            Thread.sleep(MEDIUM_DELAY.toMillis());
-            return driver.findElement(searchContainer).isDisplayed();
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaAppPage.isSearchContainerDisplayed")) {
+            ConditionWait.until("контейнер поиска", WAIT_TIMEOUT,
+                    () -> fromScreen(snapshot -> snapshot.isDisplayed(searchContainer) ? Boolean.TRUE : null));
+            return true;
         } catch (Exception e) {
             return false;
         }
@@ -89,21 +136,15 @@ public class WikipediaAppPage {
      * Выполняет поиск статьи и открывает первый результат.
      */
     public void searchArticle(String searchQuery) {
-        try {
-            skipOnboarding();
-            Thread.sleep(MEDIUM_DELAY.toMillis());
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaAppPage.searchArticle")) {
+            perform(() -> waitForDisplayed("контейнер поиска", searchContainer, WAIT_TIMEOUT).click());
 
-            driver.findElement(searchContainer).click();
-            Thread.sleep(SHORT_DELAY.toMillis());
+            WebElement searchInput = waitForDisplayed("поле ввода поиска", searchInputField, WAIT_TIMEOUT);
+            perform(() -> searchInput.sendKeys(searchQuery));
 
-            WebElement searchInput = wait.until(
-                    ExpectedConditions.visibilityOfElementLocated(searchInputField));
-            searchInput.sendKeys(searchQuery);
+            perform(() -> waitForDisplayed("первый результат поиска", firstSearchResult, SEARCH_RESULTS_TIMEOUT)
+                    .click());
 
-            Thread.sleep(LONG_DELAY.toMillis());
-            driver.findElement(firstSearchResult).click();
-
-            Thread.sleep(MEDIUM_DELAY.toMillis());
             closePopupIfPresent();
 
         } catch (Exception e) {
@@ -111,29 +152,53 @@ public class WikipediaAppPage {
         }
     }
 
+    /**
+     * Открывает статью напрямую по ссылке {@code app.article.url} + название, минуя экран поиска.
+     * По умолчанию ссылка ведет на статью той же Википедии, что и веб-тесты
+     * ({@link TestEnvironment#upstreamWikipediaBaseUrl()}): локальный сервер фикстур
+     * с устройства недоступен.
+     * Подходит для тестов, которые проверяют статью, а не сам поиск.
+     */
+    public void openArticle(String title) {
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaAppPage.openArticle")) {
+            String url = System.getProperty("app.article.url", TestEnvironment.upstreamWikipediaBaseUrl() + ARTICLE_PATH)
+                    + URLEncoder.encode(title.trim().replace(' ', '_'), StandardCharsets.UTF_8);
+            perform(() -> driver.executeScript("mobile: deepLink",
+                    Map.of("url", url, "package", WebDriverFactory.WIKIPEDIA_PACKAGE)));
+        }
+    }
+
     /**
      * Получает заголовок текущей статьи.
-     * 
+     *
      * @return заголовок статьи или пустую строку в случае ошибки
      */
     public String getArticleTitle() {
-        try {
-            Thread.sleep(LONG_DELAY.toMillis());
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaAppPage.getArticleTitle")) {
             closePopupIfPresent();
 
-            WebElement titleElement = driver.findElement(articleTitlePrimary);
-            return titleElement.getText();
+            return ConditionWait.until("заголовок статьи", WAIT_TIMEOUT,
+                    () -> fromScreen(snapshot -> snapshot.find(articleTitlePrimary)
+                            .map(PageSourceSnapshot.ScreenElement::getText)
+                            .filter(text -> !text.isEmpty())
+                            .orElse(null)));
 
         } catch (Exception primaryMethodException) {
             return tryAlternativeTitleLocator();
         }
     }
 
+    /**
+     * Резервный способ: первый текстовый элемент экрана с непустым текстом
+     * из того же снимка, без дополнительного запроса к серверу.
+     */
     private String tryAlternativeTitleLocator() {
         try {
-            WebElement titleElement = driver.findElement(AppiumBy.androidUIAutomator(
-                    "new UiSelector().className(\"android.widget.TextView\").instance(0)"));
-            return titleElement.getText();
+            return fromScreen(snapshot -> snapshot.findAllByClass(TEXT_VIEW_CLASS).stream()
+                    .map(PageSourceSnapshot.ScreenElement::getText)
+                    .filter(text -> !text.isEmpty())
+                    .findFirst()
+                    .orElse(""));
         } catch (Exception alternativeMethodException) {
             return "";
         }
@@ -143,20 +208,18 @@ public class WikipediaAppPage {
      * Возвращается на предыдущий экран.
      */
     public void navigateBack() {
-        try {
-            Thread.sleep(SHORT_DELAY.toMillis());
-            driver.findElement(navigationButton).click();
-            Thread.sleep(MEDIUM_DELAY.toMillis());
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaAppPage.navigateBack")) {
+            perform(() -> waitForDisplayed("кнопка навигации назад", navigationButton, WAIT_TIMEOUT).click());
             closePopupIfPresent();
         } catch (Exception e) {
-            driver.navigate().back(); // Резервный способ навигации
+            perform(() -> driver.navigate().back()); // Резервный способ навигации
         }
     }
 
     /**
-     * Универсальный метод ожидания для использования в тестах.
+     * Ожидает главный экран с контейнером поиска.
      */
-    public void waitFor(Duration duration) throws InterruptedException {
-        Thread.sleep(duration.toMillis());
+    public void waitForMainScreen() {
+        waitForDisplayed("контейнер поиска", searchContainer, WAIT_TIMEOUT);
     }
 }
@@ -5,17 +5,28 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import ru.javabruse.utils.DomSnapshot;
+import ru.javabruse.utils.LatencyRecorder;
+import ru.javabruse.utils.PageLoadStats;
+import ru.javabruse.utils.TestEnvironment;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Page Object для главной страницы Википедии.
  * Инкапсулирует взаимодействие с основными элементами веб-интерфейса.
+ * Длительность каждого метода и ожидания записывается в {@link LatencyRecorder}.
+ * Проверки состояния нескольких элементов выполняются одним запросом через {@link DomSnapshot}.
+ * Показатели открытых страниц для бюджетов производительности снимает {@link PageLoadStats}.
  */
-public class WikipediaPage {
+public class WikipediaPage implements WikipediaSearch {
 
     private static final Duration WAIT_TIMEOUT = Duration.ofSeconds(15);
-    private static final String MAIN_PAGE_URL = "https://ru.wikipedia.org/wiki/Заглавная_страница";
+    private static final Duration DEFAULT_POLL_INTERVAL = Duration.ofMillis(500);
+    private static final int DEFAULT_BATCH_TABS = 4;
 
     private final WebDriver driver;
     private final WebDriverWait wait;
@@ -29,25 +40,35 @@ public class WikipediaPage {
     private final By searchButton = By.id("searchButton");
 
     public WikipediaPage(WebDriver driver) {
+        this(driver, DEFAULT_POLL_INTERVAL);
+    }
+
+    /**
+     * @param pollInterval интервал опроса явных ожиданий
+     */
+    public WikipediaPage(WebDriver driver, Duration pollInterval) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, WAIT_TIMEOUT);
+        this.wait = new WebDriverWait(driver, WAIT_TIMEOUT, pollInterval);
     }
 
     /**
-     * Открывает главную страницу Википедии.
+     * Открывает главную страницу Википедии по адресу из {@link TestEnvironment}.
      */
+    @Override
     public void open() {
-        driver.get(MAIN_PAGE_URL);
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.open")) {
+            driver.get(TestEnvironment.wikipediaMainPageUrl());
+            PageLoadStats.measure(driver, PageLoadStats.PageType.MAIN);
+        }
     }
 
     /**
      * Проверяет, что главная страница загружена корректно.
      */
     public boolean isLoaded() {
-        try {
-            waitForLogo();
-            WebElement content = waitForBodyContent();
-            return content.isDisplayed();
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.isLoaded")) {
+            waitForDisplayed(logo, bodyContent);
+            return true;
         } catch (Exception e) {
             return false;
         }
@@ -56,57 +77,112 @@ public class WikipediaPage {
     /**
      * Выполняет поиск статьи по указанному запросу.
      */
+    @Override
     public void search(String searchQuery) {
-        WebElement searchField = waitForSearchInput();
-        searchField.clear();
-        searchField.sendKeys(searchQuery);
-        searchField.submit();
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.search")) {
+            WebElement searchField = waitForSearchInput();
+            searchField.clear();
+            searchField.sendKeys(searchQuery);
+            searchField.submit();
+            PageLoadStats.measure(driver, PageLoadStats.PageType.ARTICLE);
+        }
+    }
+
+    /**
+     * Выполняет пакет поисковых запросов в {@value #DEFAULT_BATCH_TABS} вкладках текущей сессии.
+     *
+     * @see #searchAll(Collection, int)
+     */
+    public List<SearchResult> searchAll(Collection<String> searchQueries) {
+        return searchAll(searchQueries, DEFAULT_BATCH_TABS);
+    }
+
+    /**
+     * Выполняет пакет поисковых запросов в нескольких вкладках текущей сессии.
+     * Страницы во вкладках загружаются одновременно, ошибка одного запроса
+     * не прерывает остальные. После выполнения драйвер возвращается на исходную вкладку.
+     *
+     * @param searchQueries поисковые запросы
+     * @param maxTabs максимальное количество одновременно открытых вкладок
+     * @return результаты в порядке запросов
+     */
+    public List<SearchResult> searchAll(Collection<String> searchQueries, int maxTabs) {
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.searchAll")) {
+            return new BatchSearch(driver, maxTabs, WAIT_TIMEOUT).run(new ArrayList<>(searchQueries));
+        }
     }
 
     /**
      * Получает заголовок текущей отображаемой статьи.
      */
+    @Override
     public String getArticleTitle() {
-        WebElement heading = waitForArticleHeading();
-        return heading.getText().trim();
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.getArticleTitle")) {
+            WebElement heading = waitForArticleHeading();
+            return heading.getText().trim();
+        }
     }
 
     /**
      * Открывает случайную статью Википедии.
      */
+    @Override
     public void openRandomArticle() {
-        WebElement randomLink = waitForClickableRandomLink();
-        randomLink.click();
-        waitForBodyContent();
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.openRandomArticle")) {
+            WebElement randomLink = waitForClickableRandomLink();
+            randomLink.click();
+            waitForBodyContent();
+            PageLoadStats.measure(driver, PageLoadStats.PageType.ARTICLE);
+        }
     }
 
     /**
      * Проверяет доступность поиска на странице.
      */
+    @Override
     public boolean isSearchAvailable() {
-        WebElement searchField = waitForSearchInput();
-        return searchField.isDisplayed() && searchField.isEnabled();
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.isSearchAvailable")) {
+            return waitForDisplayed(searchInput).isEnabled(searchInput);
+        }
     }
 
     // Приватные вспомогательные методы для работы с элементами
 
-    private void waitForLogo() {
-        wait.until(ExpectedConditions.visibilityOfElementLocated(logo));
+    /**
+     * Ожидает, пока все элементы станут видимыми; каждая попытка — один запрос к браузеру.
+     *
+     * @return снимок, в котором все элементы видимы
+     */
+    private DomSnapshot waitForDisplayed(By... locators) {
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.waitForDisplayed")) {
+            return wait.until(webDriver -> {
+                DomSnapshot snapshot = DomSnapshot.capture(webDriver, locators);
+                return snapshot.allDisplayed(locators) ? snapshot : null;
+            });
+        }
     }
 
     private WebElement waitForBodyContent() {
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(bodyContent));
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.waitForBodyContent")) {
+            return wait.until(ExpectedConditions.visibilityOfElementLocated(bodyContent));
+        }
     }
 
     private WebElement waitForSearchInput() {
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(searchInput));
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.waitForSearchInput")) {
+            return wait.until(ExpectedConditions.visibilityOfElementLocated(searchInput));
+        }
     }
 
     private WebElement waitForArticleHeading() {
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(articleHeading));
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.waitForArticleHeading")) {
+            return wait.until(ExpectedConditions.visibilityOfElementLocated(articleHeading));
+        }
     }
 
     private WebElement waitForClickableRandomLink() {
-        return wait.until(ExpectedConditions.elementToBeClickable(randomPageLink));
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.waitForClickableRandomLink")) {
+            return wait.until(ExpectedConditions.elementToBeClickable(randomPageLink));
+        }
     }
 }
@@ -0,0 +1,35 @@
+package ru.javabruse.pages;
+
+/**
+ * Операции Википедии, которые проверяют данные, а не интерфейс.
+ * Реализуются как через браузер ({@link WikipediaPage}), так и напрямую
+ * через HTTP ({@link WikipediaApiPage}), поэтому тесты содержимого
+ * могут выполняться в любом из режимов.
+ */
+public interface WikipediaSearch {
+
+    /**
+     * Открывает главную страницу Википедии.
+     */
+    void open();
+
+    /**
+     * Выполняет поиск статьи по указанному запросу.
+     */
+    void search(String searchQuery);
+
+    /**
+     * Получает заголовок текущей статьи.
+     */
+    String getArticleTitle();
+
+    /**
+     * Открывает случайную статью Википедии.
+     */
+    void openRandomArticle();
+
+    /**
+     * Проверяет доступность поиска.
+     */
+    boolean isSearchAvailable();
+}
@@ -0,0 +1,166 @@
+package ru.javabruse.utils;
+
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.appmanagement.ApplicationState;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Одна сессия Appium на весь прогон с быстрым сбросом приложения между тестами.
+ *
+ * <p>Вместо новой сессии и переустановки приложения перед каждым тестом приложение
+ * перезапускается ({@code terminateApp} + {@code activateApp}). Данные приложения
+ * очищаются ({@code mobile: clearApp}) один раз при создании сессии — с {@code noReset=true}
+ * Appium сохраняет их от прошлого прогона, — и затем только если предыдущий тест завершился
+ * неуспешно или приложение не вышло на передний план после перезапуска. Подготовка нового
+ * состояния приложения (например, пропуск onboarding) выполняется только после
+ * очистки данных.
+ */
+public class AndroidAppSession {
+
+    private final Callable<AndroidDriver> driverFactory;
+    private final String appPackage;
+    private final Consumer<AndroidDriver> freshAppSetup;
+    private final Metrics metrics = new Metrics();
+
+    private AndroidDriver driver;
+    private boolean dirty;
+
+    /**
+     * @param driverFactory создает новую сессию Appium
+     * @param appPackage пакет тестируемого приложения
+     * @param freshAppSetup подготовка приложения после первого запуска или очистки данных
+     */
+    public AndroidAppSession(Callable<AndroidDriver> driverFactory, String appPackage,
+                             Consumer<AndroidDriver> freshAppSetup) {
+        this.driverFactory = driverFactory;
+        this.appPackage = appPackage;
+        this.freshAppSetup = freshAppSetup;
+    }
+
+    /**
+     * Выдает сессию с приложением в исходном состоянии.
+     * При первом вызове создает сессию, при последующих сбрасывает приложение.
+     */
+    public synchronized AndroidDriver acquire() {
+        if (driver == null) {
+            createSession();
+            return driver;
+        }
+        long start = System.nanoTime();
+        try {
+            if (dirty) {
+                clearApp();
+            } else {
+                restartApp();
+            }
+        } catch (WebDriverException e) {
+            System.err.println("[APP SESSION] Сессия Appium неисправна, создается новая: " + e.getMessage());
+            quitQuietly();
+            createSession();
+            return driver;
+        }
+        metrics.resets++;
+        metrics.resetNanos += System.nanoTime() - start;
+        dirty = false;
+        return driver;
+    }
+
+    /**
+     * Возвращает сессию после теста.
+     *
+     * @param clean {@code false}, если тест завершился неуспешно и перед следующим
+     *              тестом нужно очистить данные приложения
+     */
+    public synchronized void release(boolean clean) {
+        dirty = dirty || !clean;
+    }
+
+    /**
+     * Закрывает сессию Appium.
+     */
+    public synchronized void shutdown() {
+        quitQuietly();
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    private void createSession() {
+        long start = System.nanoTime();
+        try {
+            driver = driverFactory.call();
+        } catch (Exception e) {
+            throw new IllegalStateException("Не удалось создать сессию Appium", e);
+        }
+        resetAppData();
+        metrics.sessions++;
+        metrics.sessionSetupNanos += System.nanoTime() - start;
+        dirty = false;
+    }
+
+    private void restartApp() {
+        driver.terminateApp(appPackage);
+        driver.activateApp(appPackage);
+        if (driver.queryAppState(appPackage) != ApplicationState.RUNNING_IN_FOREGROUND) {
+            clearApp();
+        }
+    }
+
+    private void clearApp() {
+        resetAppData();
+        metrics.clears++;
+    }
+
+    private void resetAppData() {
+        driver.executeScript("mobile: clearApp", Map.of("appId", appPackage));
+        driver.activateApp(appPackage);
+        freshAppSetup.accept(driver);
+    }
+
+    private void quitQuietly() {
+        if (driver == null) {
+            return;
+        }
+        try {
+            driver.quit();
+        } catch (WebDriverException e) {
+            // Сессия уже закрыта сервером
+        }
+        driver = null;
+    }
+
+    /**
+     * Затраты на подготовку приложения: создание сессий и сбросы между тестами.
+     */
+    public static class Metrics {
+
+        private int sessions;
+        private long sessionSetupNanos;
+        private int resets;
+        private long resetNanos;
+        private int clears;
+
+        /** Суммарное время создания сессий Appium, включая подготовку приложения. */
+        public Duration getSessionSetupTime() {
+            return Duration.ofNanos(sessionSetupNanos);
+        }
+
+        public Duration getAverageResetTime() {
+            return resets == 0 ? Duration.ZERO : Duration.ofNanos(resetNanos / resets);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "сессий: %d, создание: %d мс, сбросов: %d (в среднем %d мс), очисток данных: %d",
+                    sessions, getSessionSetupTime().toMillis(), resets,
+                    getAverageResetTime().toMillis(), clears);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.javabruse.utils;
+
+/**
+ * Устройство Android из {@link AndroidDevicePool}: сервер Appium, через который оно доступно,
+ * и выделенные ему порты UiAutomator2. Порты у устройств пула не пересекаются,
+ * поэтому несколько сессий могут работать на одном сервере Appium одновременно.
+ */
+public final class AndroidDevice {
+
+    private final String udid;
+    private final String appiumUrl;
+    private final int systemPort;
+    private final int chromedriverPort;
+    private final int mjpegServerPort;
+
+    /**
+     * @param udid серийный номер устройства или {@code null}, если Appium выбирает устройство сам
+     */
+    AndroidDevice(String udid, String appiumUrl, int systemPort, int chromedriverPort, int mjpegServerPort) {
+        this.udid = udid;
+        this.appiumUrl = appiumUrl;
+        this.systemPort = systemPort;
+        this.chromedriverPort = chromedriverPort;
+        this.mjpegServerPort = mjpegServerPort;
+    }
+
+    public String getUdid() {
+        return udid;
+    }
+
+    /**
+     * Серийный номер для журнала; для устройства по умолчанию — его описание.
+     */
+    public String getName() {
+        return udid == null ? "устройство по умолчанию" : udid;
+    }
+
+    public String getAppiumUrl() {
+        return appiumUrl;
+    }
+
+    public int getSystemPort() {
+        return systemPort;
+    }
+
+    public int getChromedriverPort() {
+        return chromedriverPort;
+    }
+
+    public int getMjpegServerPort() {
+        return mjpegServerPort;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s, systemPort=%d, chromedriverPort=%d, mjpegServerPort=%d)",
+                getName(), appiumUrl, systemPort, chromedriverPort, mjpegServerPort);
+    }
+}
@@ -0,0 +1,233 @@
+package ru.javabruse.utils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Пул устройств Android для параллельного запуска мобильных тестов.
+ *
+ * <p>Устройства задаются свойством {@code android.devices} — список серийных номеров через
+ * запятую, каждому можно указать свой сервер Appium: {@code emulator-5554,R58M@http://host:4723}.
+ * Если свойство не задано, берутся устройства из {@code adb devices}; если adb недоступен
+ * или устройств нет — одно устройство по умолчанию, как при запуске без пула.
+ *
+ * <p>Каждому устройству выделяются свои {@code systemPort} (от {@value #SYSTEM_PORT_BASE}),
+ * {@code chromedriverPort} (от {@value #CHROMEDRIVER_PORT_BASE}) и {@code mjpegServerPort}
+ * (от {@value #MJPEG_PORT_BASE}). Для устройств на локальном сервере Appium порты, занятые
+ * на этой машине, пропускаются; занятость портов на удаленном сервере отсюда не проверить,
+ * поэтому им порты выдаются подряд, и занятый порт проявится ошибкой создания сессии.
+ * На каждом устройстве работает своя {@link AndroidAppSession}, тест арендует ее
+ * через {@link #lease(Duration)} и возвращает через {@link #release}.
+ */
+public class AndroidDevicePool {
+
+    static final int SYSTEM_PORT_BASE = 8200;
+    static final int CHROMEDRIVER_PORT_BASE = 9520;
+    static final int MJPEG_PORT_BASE = 7810;
+    private static final Duration ADB_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Map<AndroidAppSession, AndroidDevice> devices = new LinkedHashMap<>();
+    private final BlockingQueue<AndroidAppSession> idleSessions = new LinkedBlockingQueue<>();
+
+    /**
+     * @param devices устройства пула
+     * @param sessionFactory создает сессию приложения для устройства; сессия Appium
+     *                       открывается при первой аренде
+     */
+    public AndroidDevicePool(List<AndroidDevice> devices, Function<AndroidDevice, AndroidAppSession> sessionFactory) {
+        if (devices.isEmpty()) {
+            throw new IllegalArgumentException("В пуле должно быть хотя бы одно устройство");
+        }
+        for (AndroidDevice device : devices) {
+            AndroidAppSession session = sessionFactory.apply(device);
+            this.devices.put(session, device);
+            idleSessions.add(session);
+        }
+    }
+
+    /**
+     * Создает пул из устройств, заданных свойством {@code android.devices} или найденных через adb.
+     */
+    public static AndroidDevicePool discover(Function<AndroidDevice, AndroidAppSession> sessionFactory) {
+        List<AndroidDevice> devices = allocatePorts(configuredDevices());
+        devices.forEach(device -> System.out.println("[DEVICE POOL] " + device));
+        return new AndroidDevicePool(devices, sessionFactory);
+    }
+
+    /**
+     * Арендует сессию свободного устройства, ожидая освобождения не дольше {@code timeout}.
+     */
+    public AndroidAppSession lease(Duration timeout) {
+        try {
+            AndroidAppSession session = idleSessions.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (session == null) {
+                throw new IllegalStateException(String.format(
+                        "Не удалось получить устройство из пула за %d мс (устройств: %d)",
+                        timeout.toMillis(), devices.size()));
+            }
+            return session;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание устройства из пула прервано", e);
+        }
+    }
+
+    /**
+     * Возвращает сессию устройства в пул.
+     *
+     * @param clean {@code false}, если тест завершился неуспешно
+     * @see AndroidAppSession#release(boolean)
+     */
+    public void release(AndroidAppSession session, boolean clean) {
+        if (session == null || !devices.containsKey(session)) {
+            return;
+        }
+        session.release(clean);
+        idleSessions.add(session);
+    }
+
+    public int size() {
+        return devices.size();
+    }
+
+    /**
+     * Закрывает сессии всех устройств и выводит их метрики.
+     */
+    public void shutdown() {
+        devices.forEach((session, device) -> {
+            System.out.println("[APP SESSION] " + device.getName() + ": " + session.getMetrics());
+            session.shutdown();
+        });
+    }
+
+    /**
+     * Серийные номера устройств в состоянии {@code device} по данным {@code adb devices}.
+     *
+     * @throws IOException если adb не найден
+     * @throws IllegalStateException если adb не ответил за {@code timeout}
+     */
+    static List<String> adbDevices(String adb, Duration timeout) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(adb, "devices").redirectErrorStream(true).start();
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("adb не ответил за " + timeout.toSeconds() + " с");
+        }
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        List<String> udids = new ArrayList<>();
+        for (String line : output.split("\\R")) {
+            String[] columns = line.trim().split("\\s+");
+            if (columns.length == 2 && "device".equals(columns[1])) {
+                udids.add(columns[0]);
+            }
+        }
+        return udids;
+    }
+
+    /**
+     * Устройства без портов: пары «серийный номер — адрес Appium».
+     */
+    private static List<String[]> configuredDevices() {
+        String defaultAppiumUrl = WebDriverFactory.appiumServerUrl();
+        List<String[]> configured = new ArrayList<>();
+        String property = System.getProperty("android.devices", "").trim();
+        if (!property.isEmpty()) {
+            for (String entry : property.split(",")) {
+                String[] parts = entry.trim().split("@", 2);
+                configured.add(new String[] {parts[0], parts.length > 1 ? parts[1] : defaultAppiumUrl});
+            }
+            return configured;
+        }
+        try {
+            for (String udid : adbDevices(System.getProperty("health.adb", "adb"), ADB_TIMEOUT)) {
+                configured.add(new String[] {udid, defaultAppiumUrl});
+            }
+        } catch (IOException e) {
+            // adb на этой машине нет: устройство выбирает сервер Appium
+        } catch (IllegalStateException e) {
+            System.err.println("[DEVICE POOL] " + e.getMessage() + ", используется устройство по умолчанию");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (configured.isEmpty()) {
+            configured.add(new String[] {null, defaultAppiumUrl});
+        }
+        return configured;
+    }
+
+    private static List<AndroidDevice> allocatePorts(List<String[]> configured) {
+        PortAllocator systemPorts = new PortAllocator(SYSTEM_PORT_BASE);
+        PortAllocator chromedriverPorts = new PortAllocator(CHROMEDRIVER_PORT_BASE);
+        PortAllocator mjpegPorts = new PortAllocator(MJPEG_PORT_BASE);
+        List<AndroidDevice> devices = new ArrayList<>();
+        for (String[] device : configured) {
+            boolean local = isLocal(device[1]);
+            devices.add(new AndroidDevice(device[0], device[1],
+                    systemPorts.next(local), chromedriverPorts.next(local), mjpegPorts.next(local)));
+        }
+        return Collections.unmodifiableList(devices);
+    }
+
+    /**
+     * Проверяет, что сервер Appium работает на этой машине и его порты можно проверить локально.
+     */
+    static boolean isLocal(String appiumUrl) {
+        try {
+            String host = URI.create(appiumUrl).getHost();
+            if (host == null) {
+                return false;
+            }
+            InetAddress address = InetAddress.getByName(host);
+            return address.isLoopbackAddress() || address.isAnyLocalAddress()
+                    || NetworkInterface.getByInetAddress(address) != null;
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Выдает порты по возрастанию, каждый порт один раз. Для локального сервера Appium
+     * пропускаются порты, занятые на этой машине.
+     */
+    private static final class PortAllocator {
+
+        private static final int MAX_PORT = 65535;
+
+        private int next;
+
+        private PortAllocator(int base) {
+            this.next = base;
+        }
+
+        private int next(boolean local) {
+            while (next <= MAX_PORT) {
+                int port = next++;
+                if (!local || isFree(port)) {
+                    return port;
+                }
+            }
+            throw new IllegalStateException("Нет свободных портов для устройств Android");
+        }
+
+        private static boolean isFree(int port) {
+            try (ServerSocket socket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress())) {
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.PageLoadStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Профили запуска браузера для веб-тестов.
+ * Профиль выбирается системным свойством {@code browser.profile}.
+ */
+public enum BrowserProfile {
+
+    /**
+     * Окно браузера на весь экран, полная загрузка страниц и всех ресурсов.
+     */
+    STANDARD(false, PageLoadStrategy.NORMAL, false, Collections.emptyList()),
+
+    /**
+     * Браузер без окна, загрузка страницы завершается после построения DOM,
+     * изображения, медиа, шрифты и сторонние скрипты блокируются.
+     */
+    LEAN(true, PageLoadStrategy.EAGER, true, Arrays.asList(
+            "*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.svg", "*.ico",
+            "*.woff", "*.woff2", "*.ttf", "*.otf",
+            "*.mp3", "*.mp4", "*.ogg", "*.ogv", "*.oga", "*.webm",
+            "*upload.wikimedia.org*",
+            "*intake-analytics.wikimedia.org*",
+            "*/beacon/*",
+            "*google-analytics.com*",
+            "*googletagmanager.com*"));
+
+    private static final String PROFILE_PROPERTY = "browser.profile";
+    private static final String EXTRA_BLOCKED_URLS_PROPERTY = "browser.blocked.urls";
+
+    private final boolean headless;
+    private final PageLoadStrategy pageLoadStrategy;
+    private final boolean blockImages;
+    private final List<String> blockedUrlPatterns;
+
+    BrowserProfile(boolean headless, PageLoadStrategy pageLoadStrategy, boolean blockImages,
+                   List<String> blockedUrlPatterns) {
+        this.headless = headless;
+        this.pageLoadStrategy = pageLoadStrategy;
+        this.blockImages = blockImages;
+        this.blockedUrlPatterns = blockedUrlPatterns;
+    }
+
+    /**
+     * Возвращает профиль, выбранный для текущего запуска.
+     */
+    public static BrowserProfile current() {
+        String name = System.getProperty(PROFILE_PROPERTY, STANDARD.name());
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public PageLoadStrategy getPageLoadStrategy() {
+        return pageLoadStrategy;
+    }
+
+    /**
+     * Запрещает ли профиль показ изображений настройками содержимого Chrome.
+     * Не зависит от {@code browser.blocked.urls}: дополнительные шаблоны блокируют
+     * только указанные адреса.
+     */
+    public boolean isBlockingImages() {
+        return blockImages;
+    }
+
+    /**
+     * Шаблоны адресов, запросы к которым блокируются через DevTools.
+     * Дополнительные шаблоны через запятую задаются свойством {@code browser.blocked.urls}.
+     */
+    public List<String> getBlockedUrlPatterns() {
+        List<String> patterns = new ArrayList<>(blockedUrlPatterns);
+        String extra = System.getProperty(EXTRA_BLOCKED_URLS_PROPERTY, "");
+        for (String pattern : extra.split(",")) {
+            if (!pattern.trim().isEmpty()) {
+                patterns.add(pattern.trim());
+            }
+        }
+        return patterns;
+    }
+}
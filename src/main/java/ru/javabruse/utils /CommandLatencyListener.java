@@ -0,0 +1,41 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Слушатель {@link org.openqa.selenium.support.events.EventFiringDecorator},
+ * который измеряет длительность каждой команды WebDriver, WebElement и навигации.
+ * Ошибочные вызовы записываются отдельно с суффиксом {@code .error}.
+ */
+public class CommandLatencyListener implements WebDriverListener {
+
+    private final ThreadLocal<Deque<Long>> startTimes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        startTimes.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        finish(method, "");
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        finish(method, ".error");
+    }
+
+    private void finish(Method method, String suffix) {
+        Long start = startTimes.get().poll();
+        if (start != null) {
+            LatencyRecorder.record(method.getDeclaringClass().getSimpleName() + "." + method.getName() + suffix,
+                    System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Ожидание условий с опросом и адаптивной задержкой вместо фиксированных пауз.
+ * Первые проверки выполняются часто, затем интервал растет до {@link #MAX_POLL_INTERVAL}.
+ *
+ * <p>Для каждого описания условия накапливается статистика фактического времени
+ * ожидания относительно бюджета, см. {@link #report()}.
+ */
+public final class ConditionWait {
+
+    private static final Duration INITIAL_POLL_INTERVAL = Duration.ofMillis(50);
+    private static final Duration MAX_POLL_INTERVAL = Duration.ofMillis(500);
+    private static final double BACKOFF_FACTOR = 1.5;
+
+    private static final Map<String, WaitStats> STATISTICS = new ConcurrentHashMap<>();
+
+    private ConditionWait() {
+        // Приватный конструктор для утилитного класса
+    }
+
+    /**
+     * Ожидает, пока условие вернет значение, отличное от {@code null} и {@code false}.
+     * Исключения WebDriver во время проверки считаются невыполненным условием.
+     *
+     * @param description описание условия для сообщений и статистики
+     * @param timeout бюджет времени на ожидание
+     * @param condition проверяемое условие
+     * @return результат условия
+     * @throws TimeoutException если условие не выполнилось за отведенное время
+     */
+    public static <T> T until(String description, Duration timeout, Supplier<T> condition) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long interval = INITIAL_POLL_INTERVAL.toNanos();
+        WebDriverException lastError = null;
+
+        while (true) {
+            try {
+                T value = condition.get();
+                if (isSatisfied(value)) {
+                    record(description, timeout, System.nanoTime() - start, true);
+                    return value;
+                }
+            } catch (WebDriverException e) {
+                lastError = e;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                record(description, timeout, System.nanoTime() - start, false);
+                throw new TimeoutException(String.format("Условие '%s' не выполнилось за %d мс",
+                        description, timeout.toMillis()), lastError);
+            }
+            sleepNanos(Math.min(interval, remaining));
+            interval = Math.min((long) (interval * BACKOFF_FACTOR), MAX_POLL_INTERVAL.toNanos());
+        }
+    }
+
+    /**
+     * Ожидает условие, не выбрасывая исключение по истечении времени.
+     *
+     * @return результат условия или пустой {@link Optional}, если оно не выполнилось
+     */
+    public static <T> Optional<T> poll(String description, Duration timeout, Supplier<T> condition) {
+        try {
+            return Optional.of(until(description, timeout, condition));
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Возвращает отчет о фактическом времени ожиданий относительно их бюджетов.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder("Статистика ожиданий:");
+        new TreeMap<>(STATISTICS).forEach((description, stats) ->
+                report.append(System.lineSeparator()).append("  ").append(description)
+                        .append(": ").append(stats));
+        return report.toString();
+    }
+
+    private static boolean isSatisfied(Object value) {
+        return value != null && !Boolean.FALSE.equals(value);
+    }
+
+    private static void record(String description, Duration budget, long elapsedNanos, boolean satisfied) {
+        STATISTICS.computeIfAbsent(description, key -> new WaitStats())
+                .add(budget.toNanos(), elapsedNanos, satisfied);
+    }
+
+    private static void sleepNanos(long nanos) {
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Ожидание прервано", e);
+        }
+    }
+
+    /**
+     * Накопленная статистика одного условия.
+     */
+    private static final class WaitStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder totalElapsedNanos = new LongAdder();
+        private final LongAdder totalBudgetNanos = new LongAdder();
+        private final AtomicLong maxElapsedNanos = new AtomicLong();
+
+        private void add(long budgetNanos, long elapsedNanos, boolean satisfied) {
+            count.increment();
+            if (!satisfied) {
+                timeouts.increment();
+            }
+            totalElapsedNanos.add(elapsedNanos);
+            totalBudgetNanos.add(budgetNanos);
+            maxElapsedNanos.accumulateAndGet(elapsedNanos, Math::max);
+        }
+
+        @Override
+        public String toString() {
+            long calls = count.sum();
+            long elapsed = totalElapsedNanos.sum();
+            long budget = totalBudgetNanos.sum();
+            return String.format("вызовов %d, тайм-аутов %d, среднее %d мс, максимум %d мс, "
+                            + "использовано %.0f%% бюджета",
+                    calls, timeouts.sum(), elapsed / calls / 1_000_000,
+                    maxElapsedNanos.get() / 1_000_000, budget == 0 ? 0.0 : 100.0 * elapsed / budget);
+        }
+    }
+}
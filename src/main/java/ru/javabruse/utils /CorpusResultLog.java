@@ -0,0 +1,217 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Журнал результатов прогона корпуса в формате JSON Lines, дописываемый после каждого запроса.
+ *
+ * <p>При открытии существующего журнала запросы со статусом {@code PASSED} и {@code FAILED}
+ * считаются выполненными, поэтому прерванный прогон продолжается с невыполненных строк.
+ * Запись засчитывается, только если запрос и ожидаемый заголовок в ней совпадают со строкой
+ * корпуса: после правки корпуса измененные строки выполняются заново. Запросы со статусом
+ * {@code ERROR} (ошибка окружения, а не расхождение заголовка) выполняются повторно.
+ * Оборванная при прерывании последняя запись пропускается. В памяти хранятся битовые карты
+ * выполненных и расходящихся строк и хэш запроса каждой выполненной строки.
+ *
+ * <p>Прогон, выполнивший все строки без ошибок окружения, отмечается записью
+ * {@code {"complete": true}} ({@link #markComplete()}). Завершенный журнал не продолжается:
+ * при следующем открытии он переименовывается в {@code <журнал>.previous} и прогон начинается заново.
+ */
+public final class CorpusResultLog implements Closeable {
+
+    /**
+     * Итог одного запроса.
+     */
+    public enum Status { PASSED, FAILED, ERROR }
+
+    private static final String COMPLETE_KEY = "complete";
+
+    private final Path file;
+    private final BitSet completed = new BitSet();
+    private final BitSet failed = new BitSet();
+    private int[] queryHashes = new int[0];
+    private final BufferedWriter writer;
+    private int previouslyFailed;
+
+    private CorpusResultLog(Path file, boolean resume) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        boolean append = resume;
+        if (resume && Files.isRegularFile(file) && readCompleted()) {
+            Path previous = file.resolveSibling(file.getFileName() + ".previous");
+            Files.move(file, previous, StandardCopyOption.REPLACE_EXISTING);
+            completed.clear();
+            failed.clear();
+            System.out.println("[CORPUS] Прогон по журналу " + file + " завершен, начинается новый; прежний журнал: "
+                    + previous);
+            append = false;
+        }
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        if (append && endsWithPartialRecord()) {
+            // Оборванная запись не должна склеиться с первой записью этого прогона
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Открывает журнал.
+     *
+     * @param resume {@code true} — продолжить существующий журнал, {@code false} — начать заново
+     */
+    public static CorpusResultLog open(Path file, boolean resume) throws IOException {
+        return new CorpusResultLog(file, resume);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Выполнен ли запрос из указанной строки корпуса в одном из предыдущих прогонов.
+     * Расхождение из засчитанной записи учитывается в {@link #getPreviouslyFailed()}.
+     */
+    public synchronized boolean isCompleted(SearchCorpus.Row row) {
+        int index = row.getLineNumber();
+        if (!completed.get(index) || queryHashes[index] != queryHash(row.getQuery(), row.getExpectedTitle())) {
+            return false;
+        }
+        if (failed.get(index)) {
+            // Расхождение учитывается один раз, даже если строку проверят повторно
+            failed.clear(index);
+            previouslyFailed++;
+        }
+        return true;
+    }
+
+    /**
+     * Количество расхождений заголовков из предыдущих прогонов среди строк,
+     * засчитанных через {@link #isCompleted}.
+     */
+    public synchronized int getPreviouslyFailed() {
+        return previouslyFailed;
+    }
+
+    /**
+     * Дописывает результат запроса и сразу сбрасывает его на диск.
+     */
+    public synchronized void append(SearchCorpus.Row row, Status status, String actualTitle, String error,
+                                    long elapsedMillis) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("line", row.getLineNumber());
+        record.put("query", row.getQuery());
+        record.put("expectedTitle", row.getExpectedTitle());
+        record.put("actualTitle", actualTitle);
+        record.put("status", status.name());
+        record.put("error", error);
+        record.put("elapsedMs", elapsedMillis);
+        StringBuilder line = new StringBuilder();
+        new Json().newOutput(line).setPrettyPrint(false).write(record);
+        try {
+            writer.write(line.toString());
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать результат в " + file, e);
+        }
+    }
+
+    /**
+     * Отмечает, что все строки корпуса выполнены без ошибок окружения. Следующее открытие
+     * журнала начнет прогон заново.
+     */
+    public synchronized void markComplete() {
+        StringBuilder line = new StringBuilder();
+        new Json().newOutput(line).setPrettyPrint(false).write(Map.of(COMPLETE_KEY, true));
+        try {
+            writer.write(line.toString());
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать отметку о завершении в " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private boolean endsWithPartialRecord() throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return false;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(last);
+            return last.get(0) != '\n';
+        }
+    }
+
+    /**
+     * Читает выполненные строки; для каждой строки действует последняя запись.
+     *
+     * @return {@code true}, если журнал заканчивается отметкой о завершении прогона
+     */
+    private boolean readCompleted() throws IOException {
+        Json json = new Json();
+        boolean complete = false;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Map<String, Object> record;
+                try {
+                    record = json.toType(line, Json.MAP_TYPE);
+                } catch (JsonException e) {
+                    continue;
+                }
+                complete = Boolean.TRUE.equals(record.get(COMPLETE_KEY));
+                Object lineNumber = record.get("line");
+                Object status = record.get("status");
+                Object query = record.get("query");
+                if (!(lineNumber instanceof Number) || !(query instanceof String)) {
+                    continue;
+                }
+                int index = ((Number) lineNumber).intValue();
+                boolean done = Status.PASSED.name().equals(status) || Status.FAILED.name().equals(status);
+                completed.set(index, done);
+                failed.set(index, Status.FAILED.name().equals(status));
+                if (done) {
+                    if (index >= queryHashes.length) {
+                        queryHashes = Arrays.copyOf(queryHashes, Math.max(index + 1, queryHashes.length * 2));
+                    }
+                    Object expectedTitle = record.get("expectedTitle");
+                    queryHashes[index] = queryHash((String) query,
+                            expectedTitle == null ? null : expectedTitle.toString());
+                }
+            }
+        }
+        return complete;
+    }
+
+    private static int queryHash(String query, String expectedTitle) {
+        return Objects.hash(query, expectedTitle);
+    }
+}
@@ -0,0 +1,265 @@
+package ru.javabruse.utils;
+
+import ru.javabruse.pages.WikipediaSearch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Проверка корпуса поисковых запросов через {@link WikipediaSearch#search} и
+ * {@link WikipediaSearch#getArticleTitle} в нескольких потоках.
+ *
+ * <p>Вызывающий поток читает корпус и передает строки рабочим потокам через очередь
+ * ограниченного размера: пока все сессии заняты, чтение приостанавливается, поэтому
+ * расход памяти не зависит от размера корпуса. Каждый рабочий поток получает свою сессию
+ * один раз и использует ее для всех своих запросов; после ошибки сессия возвращается
+ * и берется новая. Результат каждого запроса сразу дописывается в {@link CorpusResultLog},
+ * строки, выполненные в прерванном прогоне, пропускаются. Если все строки выполнены
+ * без ошибок окружения, журнал отмечается завершенным.
+ *
+ * <p>Корпус — один тест TestNG, а не строки из провайдера данных: параллельный провайдер
+ * TestNG вычитывает итератор целиком и хранит результат каждого вызова, поэтому память
+ * росла бы с размером корпуса. Результат по каждой строке — в журнале {@link CorpusResultLog},
+ * расхождения и ошибки строк выводятся по мере выполнения с префиксом {@code [CORPUS]}.
+ */
+public class CorpusRunner {
+
+    private static final int MAX_MISMATCH_SAMPLES = 10;
+    private static final Duration QUEUE_POLL_INTERVAL = Duration.ofMillis(100);
+
+    private final int threads;
+    private final Supplier<WikipediaSearch> sessionFactory;
+    private final Consumer<WikipediaSearch> sessionRelease;
+    private final int progressInterval;
+
+    /**
+     * @param threads количество рабочих потоков и одновременно используемых сессий
+     * @param sessionFactory выдает сессию рабочему потоку; вызывается в этом потоке
+     * @param sessionRelease возвращает сессию; вызывается в том же потоке, что и {@code sessionFactory}
+     * @param progressInterval через сколько выполненных запросов выводить прогресс
+     */
+    public CorpusRunner(int threads, Supplier<WikipediaSearch> sessionFactory,
+                        Consumer<WikipediaSearch> sessionRelease, int progressInterval) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Количество потоков должно быть положительным: " + threads);
+        }
+        this.threads = threads;
+        this.sessionFactory = sessionFactory;
+        this.sessionRelease = sessionRelease;
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Выполняет все невыполненные запросы корпуса и возвращает итоги, включая результаты
+     * предыдущих прогонов из журнала.
+     */
+    public Summary run(SearchCorpus corpus, CorpusResultLog log) throws InterruptedException {
+        return run(corpus.getName(), corpus, log);
+    }
+
+    Summary run(String corpusName, Iterator<SearchCorpus.Row> corpus, CorpusResultLog log)
+            throws InterruptedException {
+        Summary summary = new Summary(corpusName, log);
+        // Пустое значение — сигнал рабочему потоку, что строк больше не будет
+        BlockingQueue<Optional<SearchCorpus.Row>> rows = new ArrayBlockingQueue<>(threads * 2);
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "corpus-" + corpusName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(workers.submit(() -> {
+                work(rows, log, summary);
+                return null;
+            }));
+        }
+
+        long start = System.nanoTime();
+        int queued = 0;
+        try {
+            while (corpus.hasNext()) {
+                SearchCorpus.Row row = corpus.next();
+                if (log.isCompleted(row)) {
+                    summary.resumed.increment();
+                } else {
+                    put(rows, Optional.of(row), futures);
+                    queued++;
+                }
+            }
+            for (int i = 0; i < threads; i++) {
+                put(rows, Optional.empty(), futures);
+            }
+            awaitWorkers(futures);
+            if (summary.executed.get() == queued && summary.errors.sum() == 0) {
+                log.markComplete();
+            }
+        } finally {
+            workers.shutdownNow();
+            summary.elapsed = Duration.ofNanos(System.nanoTime() - start);
+        }
+        return summary;
+    }
+
+    /**
+     * Передает строку рабочим потокам, ожидая свободного места в очереди.
+     */
+    private static void put(BlockingQueue<Optional<SearchCorpus.Row>> rows, Optional<SearchCorpus.Row> row,
+                            List<Future<?>> futures) throws InterruptedException {
+        while (!rows.offer(row, QUEUE_POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)) {
+            if (futures.stream().allMatch(Future::isDone)) {
+                awaitWorkers(futures);
+                throw new IllegalStateException("Все рабочие потоки корпуса завершились досрочно");
+            }
+        }
+    }
+
+    private void work(BlockingQueue<Optional<SearchCorpus.Row>> rows, CorpusResultLog log, Summary summary)
+            throws InterruptedException {
+        WikipediaSearch session = null;
+        try {
+            Optional<SearchCorpus.Row> next;
+            while ((next = rows.take()).isPresent()) {
+                SearchCorpus.Row row = next.get();
+                long start = System.nanoTime();
+                String title = null;
+                String error = null;
+                try {
+                    if (session == null) {
+                        session = sessionFactory.get();
+                    }
+                    session.search(row.getQuery());
+                    title = session.getArticleTitle();
+                } catch (RuntimeException e) {
+                    error = e.getClass().getSimpleName() + ": " + firstLine(e.getMessage());
+                    session = releaseQuietly(session);
+                }
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                CorpusResultLog.Status status = error != null ? CorpusResultLog.Status.ERROR
+                        : row.matches(title) ? CorpusResultLog.Status.PASSED : CorpusResultLog.Status.FAILED;
+                log.append(row, status, title, error, elapsedMillis);
+                summary.record(row, status, title, error, progressInterval);
+            }
+        } finally {
+            releaseQuietly(session);
+        }
+    }
+
+    private WikipediaSearch releaseQuietly(WikipediaSearch session) {
+        if (session != null) {
+            try {
+                sessionRelease.accept(session);
+            } catch (RuntimeException e) {
+                System.err.println("[CORPUS] Не удалось вернуть сессию: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private static void awaitWorkers(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                System.err.println("[CORPUS] Рабочий поток завершился с ошибкой: " + e.getCause());
+            }
+        }
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "";
+        }
+        int newLine = message.indexOf('\n');
+        return newLine < 0 ? message : message.substring(0, newLine);
+    }
+
+    /**
+     * Итоги прогона корпуса.
+     */
+    public static final class Summary {
+
+        private final String corpusName;
+        private final CorpusResultLog log;
+        private final LongAdder resumed = new LongAdder();
+        private final LongAdder passed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final AtomicInteger executed = new AtomicInteger();
+        private final List<String> mismatches = Collections.synchronizedList(new ArrayList<>());
+        private volatile Duration elapsed = Duration.ZERO;
+
+        private Summary(String corpusName, CorpusResultLog log) {
+            this.corpusName = corpusName;
+            this.log = log;
+        }
+
+        private void record(SearchCorpus.Row row, CorpusResultLog.Status status, String title, String error,
+                            int progressInterval) {
+            switch (status) {
+                case PASSED:
+                    passed.increment();
+                    break;
+                case FAILED:
+                    failed.increment();
+                    break;
+                default:
+                    errors.increment();
+                    break;
+            }
+            if (status != CorpusResultLog.Status.PASSED) {
+                String problem = row + (error != null ? ": " + error : ", найдено '" + title + "'");
+                System.err.println("[CORPUS] " + corpusName + ": " + problem);
+                if (mismatches.size() < MAX_MISMATCH_SAMPLES) {
+                    mismatches.add(problem);
+                }
+            }
+            int done = executed.incrementAndGet();
+            if (progressInterval > 0 && done % progressInterval == 0) {
+                System.out.printf("[CORPUS] %s: выполнено %d запросов, расхождений %d, ошибок %d%n",
+                        corpusName, done, failed.sum(), errors.sum());
+            }
+        }
+
+        /**
+         * Количество расхождений и ошибок, включая расхождения из предыдущих прогонов.
+         */
+        public long getProblemCount() {
+            return failed.sum() + errors.sum() + log.getPreviouslyFailed();
+        }
+
+        /**
+         * Первые расхождения и ошибки этого прогона.
+         */
+        public List<String> getMismatchSamples() {
+            synchronized (mismatches) {
+                return new ArrayList<>(mismatches);
+            }
+        }
+
+        @Override
+        public String toString() {
+            long executedCount = executed.get();
+            double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+            return String.format("%s: выполнено %d (%.1f запросов/с), пройдено %d, расхождений %d, ошибок %d; "
+                            + "из предыдущих прогонов: %d (расхождений %d); журнал: %s",
+                    corpusName, executedCount, executedCount / seconds, passed.sum(), failed.sum(), errors.sum(),
+                    resumed.sum(), log.getPreviouslyFailed(), log.getFile().toAbsolutePath());
+        }
+    }
+}
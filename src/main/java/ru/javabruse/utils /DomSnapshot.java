@@ -0,0 +1,225 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Снимок состояния нескольких элементов страницы, полученный одним вызовом {@code executeScript}.
+ *
+ * <p>Вместо отдельного запроса к chromedriver на каждый поиск, {@code isDisplayed},
+ * {@code isEnabled} и {@code getText} все локаторы вычисляются в браузере за один
+ * запрос, а дальнейшие проверки выполняются локально по неизменяемому снимку.
+ * Поддерживаются локаторы со стратегиями {@code css selector}, {@code xpath},
+ * {@code tag name}, {@code link text} и {@code partial link text}
+ * (в том числе {@code By.id}, {@code By.name} и {@code By.className}).
+ * Видимость определяется упрощенно: у элемента есть ненулевая область отрисовки
+ * и он не скрыт через {@code visibility}.
+ */
+public final class DomSnapshot {
+
+    private static final String CAPTURE_SCRIPT =
+            "function find(using, value) {"
+                    + "  switch (using) {"
+                    + "    case 'css selector': return Array.prototype.slice.call(document.querySelectorAll(value));"
+                    + "    case 'tag name': return Array.prototype.slice.call(document.getElementsByTagName(value));"
+                    + "    case 'xpath':"
+                    + "      var result = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+                    + "      var nodes = [];"
+                    + "      for (var i = 0; i < result.snapshotLength; i++) { nodes.push(result.snapshotItem(i)); }"
+                    + "      return nodes;"
+                    + "    case 'link text':"
+                    + "    case 'partial link text':"
+                    + "      return Array.prototype.filter.call(document.getElementsByTagName('a'), function (a) {"
+                    + "        var text = a.innerText.trim();"
+                    + "        return using === 'link text' ? text === value : text.indexOf(value) >= 0;"
+                    + "      });"
+                    + "    default: throw new Error('Неподдерживаемая стратегия локатора: ' + using);"
+                    + "  }"
+                    + "}"
+                    + "function displayed(element) {"
+                    + "  var rects = element.getClientRects();"
+                    + "  for (var i = 0; i < rects.length; i++) {"
+                    + "    if (rects[i].width > 0 && rects[i].height > 0) {"
+                    + "      return window.getComputedStyle(element).visibility !== 'hidden';"
+                    + "    }"
+                    + "  }"
+                    + "  return false;"
+                    + "}"
+                    + "return arguments[0].map(function (locator) {"
+                    + "  var elements = find(locator[0], locator[1]);"
+                    + "  if (elements.length === 0) { return {count: 0}; }"
+                    + "  var element = elements[0];"
+                    + "  var attributes = {};"
+                    + "  for (var i = 0; i < element.attributes.length; i++) {"
+                    + "    attributes[element.attributes[i].name] = element.attributes[i].value;"
+                    + "  }"
+                    + "  return {"
+                    + "    count: elements.length,"
+                    + "    displayed: displayed(element),"
+                    + "    enabled: !(element.matches && element.matches(':disabled')),"
+                    + "    text: (element.innerText || element.textContent || '').trim(),"
+                    + "    attributes: attributes"
+                    + "  };"
+                    + "});";
+
+    private final Map<By, ElementState> states;
+
+    private DomSnapshot(Map<By, ElementState> states) {
+        this.states = Collections.unmodifiableMap(states);
+    }
+
+    /**
+     * Снимает состояние первых элементов, найденных по каждому локатору.
+     *
+     * @throws IllegalArgumentException если локатор не поддерживает удаленный поиск
+     */
+    public static DomSnapshot capture(WebDriver driver, By... locators) {
+        List<List<Object>> parameters = new ArrayList<>();
+        for (By locator : locators) {
+            if (!(locator instanceof By.Remotable)) {
+                throw new IllegalArgumentException("Локатор нельзя вычислить в браузере: " + locator);
+            }
+            By.Remotable.Parameters remote = ((By.Remotable) locator).getRemoteParameters();
+            parameters.add(Arrays.asList(remote.using(), remote.value()));
+        }
+
+        List<?> rawStates;
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("DomSnapshot.capture")) {
+            rawStates = (List<?>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT, parameters);
+        }
+
+        Map<By, ElementState> states = new LinkedHashMap<>();
+        for (int i = 0; i < locators.length; i++) {
+            states.put(locators[i], ElementState.from((Map<?, ?>) rawStates.get(i)));
+        }
+        return new DomSnapshot(states);
+    }
+
+    /**
+     * Состояние элемента по локатору, переданному в {@link #capture(WebDriver, By...)}.
+     *
+     * @throws IllegalArgumentException если локатор не входил в снимок
+     */
+    public ElementState get(By locator) {
+        ElementState state = states.get(locator);
+        if (state == null) {
+            throw new IllegalArgumentException("Локатор не входит в снимок: " + locator);
+        }
+        return state;
+    }
+
+    public boolean isPresent(By locator) {
+        return get(locator).isPresent();
+    }
+
+    public boolean isDisplayed(By locator) {
+        return get(locator).isDisplayed();
+    }
+
+    /**
+     * Проверяет, что все перечисленные элементы отображаются.
+     */
+    public boolean allDisplayed(By... locators) {
+        return Arrays.stream(locators).allMatch(this::isDisplayed);
+    }
+
+    public boolean isEnabled(By locator) {
+        return get(locator).isEnabled();
+    }
+
+    public String getText(By locator) {
+        return get(locator).getText();
+    }
+
+    public String getAttribute(By locator, String name) {
+        return get(locator).getAttribute(name);
+    }
+
+    @Override
+    public String toString() {
+        return states.toString();
+    }
+
+    /**
+     * Неизменяемое состояние первого элемента, найденного по локатору.
+     */
+    public static final class ElementState {
+
+        private static final ElementState ABSENT =
+                new ElementState(0, false, false, "", Collections.emptyMap());
+
+        private final int count;
+        private final boolean displayed;
+        private final boolean enabled;
+        private final String text;
+        private final Map<String, String> attributes;
+
+        private ElementState(int count, boolean displayed, boolean enabled, String text,
+                             Map<String, String> attributes) {
+            this.count = count;
+            this.displayed = displayed;
+            this.enabled = enabled;
+            this.text = text;
+            this.attributes = attributes;
+        }
+
+        private static ElementState from(Map<?, ?> raw) {
+            int count = ((Number) raw.get("count")).intValue();
+            if (count == 0) {
+                return ABSENT;
+            }
+            Map<String, String> attributes = new LinkedHashMap<>();
+            ((Map<?, ?>) raw.get("attributes")).forEach(
+                    (name, value) -> attributes.put(String.valueOf(name), String.valueOf(value)));
+            return new ElementState(count, Boolean.TRUE.equals(raw.get("displayed")),
+                    Boolean.TRUE.equals(raw.get("enabled")), String.valueOf(raw.get("text")),
+                    Collections.unmodifiableMap(attributes));
+        }
+
+        public boolean isPresent() {
+            return count > 0;
+        }
+
+        /** Количество элементов, найденных по локатору. */
+        public int getCount() {
+            return count;
+        }
+
+        public boolean isDisplayed() {
+            return displayed;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /** Видимый текст элемента без пробелов по краям или пустая строка. */
+        public String getText() {
+            return text;
+        }
+
+        /** Значение атрибута или {@code null}, если атрибута нет. */
+        public String getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        public Map<String, String> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public String toString() {
+            return isPresent()
+                    ? String.format("{count=%d, displayed=%s, enabled=%s, text='%s'}", count, displayed, enabled, text)
+                    : "{absent}";
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный потокобезопасный пул браузерных сессий.
+ * Выдает прогретые драйверы в аренду, очищает их между арендами
+ * и заменяет неисправные сессии новыми.
+ */
+public class DriverPool<D extends WebDriver> {
+
+    private static final String CLEAR_STORAGE_SCRIPT =
+            "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}";
+
+    private final Supplier<D> driverSupplier;
+    private final String baseUrl;
+    private final int maxSize;
+    private final Semaphore permits;
+    private final BlockingDeque<D> idleDrivers = new LinkedBlockingDeque<>();
+    private final Set<D> leasedDrivers = ConcurrentHashMap.newKeySet();
+    private final Map<D, String> mainWindows = new ConcurrentHashMap<>();
+    private final Metrics metrics = new Metrics();
+    private volatile boolean closed;
+
+    /**
+     * @param driverSupplier способ создания новой сессии
+     * @param baseUrl адрес, на который возвращается сессия перед каждой арендой
+     * @param maxSize максимальное количество одновременно существующих сессий
+     */
+    public DriverPool(Supplier<D> driverSupplier, String baseUrl, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Размер пула должен быть положительным: " + maxSize);
+        }
+        this.driverSupplier = driverSupplier;
+        this.baseUrl = baseUrl;
+        this.maxSize = maxSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Заранее запускает указанное количество сессий параллельно,
+     * чтобы первые тесты не платили за старт браузера.
+     */
+    public void warmUp(int count) {
+        int target = Math.min(count, maxSize) - idleDrivers.size() - leasedDrivers.size();
+        List<CompletableFuture<D>> launches = new ArrayList<>();
+        for (int i = 0; i < target; i++) {
+            launches.add(CompletableFuture.supplyAsync(this::createDriver));
+        }
+        for (CompletableFuture<D> launch : launches) {
+            try {
+                idleDrivers.offerLast(launch.join());
+                metrics.warmedUp.increment();
+            } catch (RuntimeException e) {
+                System.err.println("Не удалось прогреть сессию: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Выдает чистую сессию, открытую на базовом адресе.
+     * Ожидает освобождения сессии не дольше указанного времени.
+     */
+    public D lease(Duration timeout) {
+        if (closed) {
+            throw new IllegalStateException("Пул драйверов уже закрыт");
+        }
+
+        long waitStart = System.nanoTime();
+        acquirePermit(timeout);
+        metrics.recordWait(System.nanoTime() - waitStart);
+
+        try {
+            D driver = pollHealthyIdleDriver();
+            if (driver == null) {
+                metrics.misses.increment();
+                driver = createDriver();
+            } else {
+                metrics.hits.increment();
+            }
+            leasedDrivers.add(driver);
+            return driver;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает сессию в пул. Сессия очищается сразу,
+     * а при ошибке очистки закрывается и будет заменена новой.
+     */
+    public void release(D driver) {
+        if (driver == null || !leasedDrivers.remove(driver)) {
+            return;
+        }
+        try {
+            if (closed) {
+                quitQuietly(driver);
+                return;
+            }
+            reset(driver);
+            idleDrivers.offerFirst(driver);
+        } catch (WebDriverException e) {
+            metrics.evictions.increment();
+            quitQuietly(driver);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Закрывает сессию, которую нельзя переиспользовать, и освобождает место в пуле.
+     */
+    public void invalidate(D driver) {
+        if (driver == null || !leasedDrivers.remove(driver)) {
+            return;
+        }
+        metrics.evictions.increment();
+        quitQuietly(driver);
+        permits.release();
+    }
+
+    /**
+     * Закрывает все сессии пула. Повторный вызов ничего не делает.
+     */
+    public void shutdown() {
+        closed = true;
+        D driver;
+        while ((driver = idleDrivers.pollFirst()) != null) {
+            quitQuietly(driver);
+        }
+        for (D leased : leasedDrivers) {
+            quitQuietly(leased);
+        }
+        leasedDrivers.clear();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    private void acquirePermit(Duration timeout) {
+        try {
+            if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException(String.format(
+                        "Не удалось получить драйвер из пула за %d мс (размер пула: %d)",
+                        timeout.toMillis(), maxSize));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание драйвера из пула прервано", e);
+        }
+    }
+
+    private D pollHealthyIdleDriver() {
+        D driver;
+        while ((driver = idleDrivers.pollFirst()) != null) {
+            if (isHealthy(driver)) {
+                return driver;
+            }
+            metrics.evictions.increment();
+            quitQuietly(driver);
+        }
+        return null;
+    }
+
+    private D createDriver() {
+        D driver = driverSupplier.get();
+        try {
+            mainWindows.put(driver, driver.getWindowHandle());
+            reset(driver);
+            return driver;
+        } catch (RuntimeException e) {
+            quitQuietly(driver);
+            throw e;
+        }
+    }
+
+    /**
+     * Приводит сессию в исходное состояние: одна вкладка, без cookies
+     * и web storage, открыт базовый адрес. Cookies и storage очищаются на странице
+     * прошлого теста, до перехода, чтобы базовый адрес загрузился уже без них.
+     */
+    private void reset(D driver) {
+        closeExtraWindows(driver);
+        driver.manage().deleteAllCookies();
+        ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+        driver.get(baseUrl);
+    }
+
+    /**
+     * Закрывает все вкладки, кроме той, с которой сессия была создана. Если тест
+     * закрыл и ее, основной становится первая оставшаяся вкладка.
+     */
+    private void closeExtraWindows(D driver) {
+        Set<String> handles = driver.getWindowHandles();
+        String mainHandle = mainWindows.get(driver);
+        if (mainHandle == null || !handles.contains(mainHandle)) {
+            mainHandle = handles.iterator().next();
+            mainWindows.put(driver, mainHandle);
+        }
+        if (handles.size() <= 1) {
+            return;
+        }
+        for (String handle : handles) {
+            if (!handle.equals(mainHandle)) {
+                driver.switchTo().window(handle);
+                driver.close();
+            }
+        }
+        driver.switchTo().window(mainHandle);
+    }
+
+    private boolean isHealthy(D driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    private void quitQuietly(D driver) {
+        mainWindows.remove(driver);
+        try {
+            driver.quit();
+        } catch (WebDriverException e) {
+            // Сессия уже недоступна, закрывать нечего
+        }
+    }
+
+    /**
+     * Метрики пула для подбора его размера.
+     */
+    public static class Metrics {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder warmedUp = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder leases = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private void recordWait(long waitNanos) {
+            leases.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+
+        /** Количество аренд, обслуженных уже запущенной сессией. */
+        public long getHits() {
+            return hits.sum();
+        }
+
+        /** Количество аренд, для которых пришлось запускать новый браузер. */
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        /** Количество сессий, закрытых из-за неисправности. */
+        public long getEvictions() {
+            return evictions.sum();
+        }
+
+        public Duration getAverageLeaseWait() {
+            long count = leases.sum();
+            return count == 0 ? Duration.ZERO : Duration.ofNanos(totalWaitNanos.sum() / count);
+        }
+
+        public Duration getMaxLeaseWait() {
+            return Duration.ofNanos(maxWaitNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "аренд: %d, попаданий: %d, промахов: %d, прогрето: %d, заменено: %d, "
+                            + "ожидание аренды: среднее %d мс, максимум %d мс",
+                    leases.sum(), getHits(), getMisses(), warmedUp.sum(), getEvictions(),
+                    getAverageLeaseWait().toMillis(), getMaxLeaseWait().toMillis());
+        }
+    }
+}
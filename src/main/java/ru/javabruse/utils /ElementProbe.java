@@ -0,0 +1,29 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Мгновенный поиск элемента, который может отсутствовать.
+ * Использует {@code findElements}, поэтому при выключенном неявном ожидании
+ * отсутствующий элемент обнаруживается за один запрос без тайм-аута.
+ * Для ожидания появления элементов используйте явные ожидания.
+ */
+public final class ElementProbe {
+
+    private ElementProbe() {
+        // Приватный конструктор для утилитного класса
+    }
+
+    /**
+     * Возвращает первый найденный элемент или пустой {@link Optional}.
+     */
+    public static Optional<WebElement> find(SearchContext context, By locator) {
+        List<WebElement> elements = context.findElements(locator);
+        return elements.isEmpty() ? Optional.empty() : Optional.of(elements.get(0));
+    }
+}
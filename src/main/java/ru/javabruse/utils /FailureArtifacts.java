@@ -0,0 +1,209 @@
+package ru.javabruse.utils;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сбор материалов упавших тестов: снимок экрана, исходный код страницы или экрана,
+ * журнал консоли браузера и logcat для {@code AndroidDriver}.
+ *
+ * <p>Снятие материалов ({@link #grab}) выполняется синхронно и только читает данные
+ * из драйвера, поэтому драйвер можно сразу вернуть в пул. Сжатие и запись на диск
+ * ({@link #save}) выполняет фоновый поток с очередью на {@code artifacts.queue} наборов
+ * (по умолчанию {@value #DEFAULT_QUEUE_CAPACITY}); если очередь заполнена, набор
+ * записывает вызывающий поток — так фоновая запись не копит неограниченный объем
+ * в памяти. {@link #flush()} в конце набора тестов дожидается записи всех материалов.
+ * Материалы сохраняются в {@code artifacts.dir} (по умолчанию {@code target/failure-artifacts}).
+ */
+public final class FailureArtifacts {
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 16;
+    private static final Duration FLUSH_TIMEOUT = Duration.ofMinutes(1);
+    private static final List<String> LOG_TYPES = Arrays.asList(LogType.BROWSER, "logcat");
+
+    private static final LongAdder SAVED = new LongAdder();
+    private static final LongAdder FILES = new LongAdder();
+    private static final LongAdder BYTES = new LongAdder();
+    private static final LongAdder WRITTEN_BY_CALLER = new LongAdder();
+
+    private static ThreadPoolExecutor writer;
+
+    private FailureArtifacts() {
+        // Приватный конструктор для утилитного класса
+    }
+
+    /**
+     * Синхронно снимает материалы с драйвера. Ошибка получения одного материала
+     * не мешает остальным и не влияет на результат теста.
+     */
+    public static Capture grab(WebDriver driver, String testName) {
+        long start = System.nanoTime();
+        Capture capture = new Capture(testName);
+        if (driver instanceof TakesScreenshot) {
+            capture.add("screenshot.png", () -> ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES));
+        }
+        String sourceName = driver instanceof AppiumDriver ? "page-source.xml" : "page-source.html";
+        capture.add(sourceName, () -> text(driver.getPageSource()));
+        Set<String> availableLogs = availableLogTypes(driver);
+        for (String logType : LOG_TYPES) {
+            if (availableLogs.contains(logType)) {
+                capture.add(logType + ".log", () -> text(formatLog(driver, logType)));
+            }
+        }
+        capture.grabMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return capture;
+    }
+
+    /**
+     * Передает материалы фоновой записи.
+     */
+    public static void save(Capture capture) {
+        writer().execute(() -> write(capture));
+    }
+
+    /**
+     * Дожидается записи всех материалов и выводит сводку.
+     * После вызова следующие материалы снова пишутся в фоне.
+     */
+    public static void flush() {
+        ThreadPoolExecutor executor;
+        synchronized (FailureArtifacts.class) {
+            executor = writer;
+            writer = null;
+        }
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(FLUSH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                System.err.println("[ARTIFACTS] Запись материалов не завершилась за "
+                        + FLUSH_TIMEOUT.toSeconds() + " с");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.printf("[ARTIFACTS] Наборов: %d, файлов: %d, байт на диске: %d, "
+                        + "записано в потоке теста из-за заполненной очереди: %d, каталог: %s%n",
+                SAVED.sum(), FILES.sum(), BYTES.sum(), WRITTEN_BY_CALLER.sum(), outputDir().toAbsolutePath());
+    }
+
+    /**
+     * Фоновый поток записи; создается при первом сохранении после {@link #flush()}.
+     * Доступен в пакете, чтобы проверки могли занять поток и заполнить очередь.
+     */
+    static synchronized ThreadPoolExecutor writer() {
+        if (writer == null) {
+            writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Integer.getInteger("artifacts.queue", DEFAULT_QUEUE_CAPACITY)),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "failure-artifacts");
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (task, executor) -> {
+                        WRITTEN_BY_CALLER.increment();
+                        task.run();
+                    });
+        }
+        return writer;
+    }
+
+    private static void write(Capture capture) {
+        Path directory = outputDir().resolve(
+                capture.testName.replaceAll("[^\\p{L}\\p{N}._-]", "_") + "-" + capture.timestamp.toEpochMilli());
+        try {
+            Files.createDirectories(directory);
+            for (Map.Entry<String, byte[]> artifact : capture.artifacts.entrySet()) {
+                boolean compress = !artifact.getKey().endsWith(".png");
+                Path file = directory.resolve(artifact.getKey() + (compress ? ".gz" : ""));
+                try (OutputStream output = compress
+                        ? new GZIPOutputStream(Files.newOutputStream(file))
+                        : Files.newOutputStream(file)) {
+                    output.write(artifact.getValue());
+                }
+                FILES.increment();
+                BYTES.add(Files.size(file));
+            }
+            SAVED.increment();
+            System.out.printf("[ARTIFACTS] %s: материалы сняты за %d мс, сохранены в %s%n",
+                    capture.testName, capture.grabMillis, directory);
+        } catch (IOException e) {
+            System.err.println("[ARTIFACTS] Не удалось сохранить материалы " + capture.testName + ": " + e);
+        }
+    }
+
+    private static Path outputDir() {
+        return Paths.get(System.getProperty("artifacts.dir", "target/failure-artifacts"));
+    }
+
+    private static Set<String> availableLogTypes(WebDriver driver) {
+        try {
+            return driver.manage().logs().getAvailableLogTypes();
+        } catch (WebDriverException | UnsupportedOperationException e) {
+            return Set.of();
+        }
+    }
+
+    private static String formatLog(WebDriver driver, String logType) {
+        StringBuilder log = new StringBuilder();
+        for (LogEntry entry : driver.manage().logs().get(logType)) {
+            log.append(Instant.ofEpochMilli(entry.getTimestamp())).append(' ')
+                    .append(entry.getLevel()).append(' ')
+                    .append(entry.getMessage()).append('\n');
+        }
+        return log.toString();
+    }
+
+    private static byte[] text(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Материалы одного упавшего теста, снятые с драйвера.
+     */
+    public static final class Capture {
+
+        private final String testName;
+        private final Instant timestamp = Instant.now();
+        private final Map<String, byte[]> artifacts = new LinkedHashMap<>();
+        private long grabMillis;
+
+        private Capture(String testName) {
+            this.testName = testName;
+        }
+
+        private void add(String name, Supplier<byte[]> source) {
+            try {
+                artifacts.put(name, source.get());
+            } catch (RuntimeException e) {
+                System.err.println("[ARTIFACTS] " + testName + ": не удалось получить " + name + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package ru.javabruse.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Локальный HTTP-сервер, который записывает ответы сайта на диск и воспроизводит их.
+ *
+ * <p>В режиме {@link Mode#RECORD} запросы проксируются на исходный сайт, а ответы
+ * сохраняются в хранилище. В режиме {@link Mode#REPLAY} ответы отдаются только
+ * из хранилища, без обращений в сеть. Абсолютные и протокольно-относительные ссылки
+ * на исходный сайт в текстовых ответах заменяются адресом локального сервера.
+ * Ключ записи — SHA-1 пути с параметрами запроса.
+ *
+ * <p>Записываются только ответы исходного сайта. Ссылки на другие хосты
+ * ({@code upload.wikimedia.org} и т. п.) остаются как есть; чтобы воспроизведение
+ * не обращалось к ним, браузер в режиме воспроизведения их не разрешает
+ * (см. {@link TestEnvironment#isFixtureReplay()}).
+ */
+public class FixtureServer implements AutoCloseable {
+
+    /**
+     * Режим работы сервера.
+     */
+    public enum Mode {
+        RECORD,
+        REPLAY
+    }
+
+    private static final String ORIGIN_PLACEHOLDER = "__FIXTURE_ORIGIN__";
+    private static final String HOST_PLACEHOLDER = "__FIXTURE_HOST__";
+    private static final Duration UPSTREAM_TIMEOUT = Duration.ofSeconds(30);
+    private static final int HANDLER_THREADS = 8;
+
+    private final Path storeDir;
+    private final Mode mode;
+    private final String upstreamOrigin;
+    private final String upstreamHost;
+    private final HttpClient httpClient;
+    private HttpServer server;
+    private ExecutorService executor;
+    private String localOrigin;
+    private String localHost;
+
+    /**
+     * @param storeDir каталог хранилища записанных ответов
+     * @param mode режим работы
+     * @param upstream адрес исходного сайта, например {@code https://ru.wikipedia.org/}
+     */
+    public FixtureServer(Path storeDir, Mode mode, URI upstream) {
+        this.storeDir = storeDir;
+        this.mode = mode;
+        this.upstreamOrigin = upstream.getScheme() + "://" + upstream.getAuthority();
+        this.upstreamHost = upstream.getAuthority();
+        this.httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(UPSTREAM_TIMEOUT)
+                .build();
+    }
+
+    /**
+     * Запускает сервер на свободном порту локального интерфейса.
+     */
+    public synchronized FixtureServer start() {
+        try {
+            Files.createDirectories(storeDir);
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось запустить сервер фикстур", e);
+        }
+        executor = Executors.newFixedThreadPool(HANDLER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "fixture-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        localHost = server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        localOrigin = "http://" + localHost;
+        System.out.printf("[FIXTURES] %s: %s -> %s (%s)%n", mode, localOrigin, upstreamOrigin, storeDir);
+        return this;
+    }
+
+    /**
+     * Адрес сервера со слешем в конце, например {@code http://127.0.0.1:53011/}.
+     */
+    public String getBaseUrl() {
+        return localOrigin + "/";
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                sendText(exchange, 405, "Поддерживаются только GET и HEAD");
+                return;
+            }
+
+            String requestTarget = exchange.getRequestURI().toString();
+            Path meta = storeDir.resolve(keyOf(requestTarget) + ".properties");
+            if (mode == Mode.RECORD) {
+                record(exchange, requestTarget, meta);
+            }
+            if (Files.notExists(meta)) {
+                System.err.println("[FIXTURES] Нет записи для " + requestTarget);
+                sendText(exchange, 404, "Нет записанного ответа для " + requestTarget);
+                return;
+            }
+            replay(exchange, meta);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[FIXTURES] Ошибка обработки запроса: " + e.getMessage());
+            sendText(exchange, 502, "Ошибка сервера фикстур: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void record(HttpExchange exchange, String requestTarget, Path meta) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(upstreamOrigin + requestTarget))
+                .timeout(UPSTREAM_TIMEOUT)
+                .GET();
+        copyRequestHeader(exchange, request, "User-Agent");
+        copyRequestHeader(exchange, request, "Accept");
+        copyRequestHeader(exchange, request, "Accept-Language");
+
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Запрос к исходному сайту прерван", e);
+        }
+
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        byte[] body = response.body();
+        if (isText(contentType)) {
+            body = new String(body, StandardCharsets.UTF_8)
+                    .replace(upstreamOrigin, ORIGIN_PLACEHOLDER)
+                    .replace("//" + upstreamHost, "//" + HOST_PLACEHOLDER)
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("request", requestTarget);
+        properties.setProperty("status", String.valueOf(response.statusCode()));
+        properties.setProperty("contentType", contentType);
+        response.headers().firstValue("Location").ifPresent(location ->
+                properties.setProperty("location", location.replace(upstreamOrigin, ORIGIN_PLACEHOLDER)));
+
+        Path bodyFile = bodyFileOf(meta);
+        writeAtomically(bodyFile, body);
+        Path temporaryMeta = Files.createTempFile(storeDir, "meta", ".tmp");
+        try (OutputStream output = Files.newOutputStream(temporaryMeta)) {
+            properties.store(output, null);
+        }
+        Files.move(temporaryMeta, meta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void replay(HttpExchange exchange, Path meta) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(meta)) {
+            properties.load(input);
+        }
+        String contentType = properties.getProperty("contentType", "");
+        byte[] body = Files.readAllBytes(bodyFileOf(meta));
+        if (isText(contentType)) {
+            body = new String(body, StandardCharsets.UTF_8)
+                    .replace(ORIGIN_PLACEHOLDER, localOrigin)
+                    .replace(HOST_PLACEHOLDER, localHost)
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+
+        if (!contentType.isEmpty()) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        String location = properties.getProperty("location");
+        if (location != null) {
+            exchange.getResponseHeaders().set("Location", location.replace(ORIGIN_PLACEHOLDER, localOrigin));
+        }
+        int status = Integer.parseInt(properties.getProperty("status"));
+        sendBody(exchange, status, body);
+    }
+
+    private void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        sendBody(exchange, status, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void sendBody(HttpExchange exchange, int status, byte[] body) throws IOException {
+        boolean noBody = "HEAD".equals(exchange.getRequestMethod()) || status == 204 || status == 304;
+        exchange.sendResponseHeaders(status, noBody ? -1 : body.length);
+        if (!noBody) {
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+
+    private void copyRequestHeader(HttpExchange exchange, HttpRequest.Builder request, String header) {
+        String value = exchange.getRequestHeaders().getFirst(header);
+        if (value != null) {
+            request.header(header, value);
+        }
+    }
+
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temporary = Files.createTempFile(storeDir, "body", ".tmp");
+        Files.write(temporary, content);
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path bodyFileOf(Path meta) {
+        String name = meta.getFileName().toString();
+        return meta.resolveSibling(name.substring(0, name.lastIndexOf('.')) + ".body");
+    }
+
+    private static boolean isText(String contentType) {
+        return contentType.startsWith("text/")
+                || contentType.contains("json")
+                || contentType.contains("javascript")
+                || contentType.contains("xml");
+    }
+
+    private static String keyOf(String requestTarget) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest(requestTarget.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 недоступен", e);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package ru.javabruse.utils;
+
+import org.testng.ITestResult;
+import org.testng.SkipException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка окружения перед тестами: доступность Википедии, сервера Appium и эмулятора.
+ *
+ * <p>При первом обращении все зависимости проверяются параллельно с коротким тайм-аутом
+ * {@code health.timeout} (по умолчанию 3 с). Для каждой зависимости действует
+ * автоматический выключатель: если она недоступна, зависящие от нее тесты сразу
+ * пропускаются через {@link SkipException} с указанием причины, вместо того чтобы
+ * ждать тайм-аутов драйвера. Если во время прогона подряд падают
+ * {@code health.breaker.threshold} тестов (по умолчанию 2), зависимость проверяется
+ * заново и при недоступности выключатель размыкается. Разомкнутый выключатель через
+ * {@code health.breaker.cooldown} секунд (по умолчанию 30) пропускает одну повторную проверку.
+ * Свойство {@code health.gate=false} отключает проверки.
+ */
+public final class HealthGate {
+
+    /**
+     * Внешние зависимости тестов.
+     */
+    public enum Dependency {
+        WIKIPEDIA("Википедия"),
+        APPIUM("сервер Appium"),
+        EMULATOR("устройство Android");
+
+        private final String description;
+
+        Dependency(String description) {
+            this.description = description;
+        }
+    }
+
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(Long.getLong("health.timeout", 3));
+    private static final Duration COOLDOWN = Duration.ofSeconds(Long.getLong("health.breaker.cooldown", 30));
+    private static final int FAILURE_THRESHOLD = Integer.getInteger("health.breaker.threshold", 2);
+
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(PROBE_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private static final Map<Dependency, Breaker> BREAKERS = new EnumMap<>(Dependency.class);
+
+    private HealthGate() {
+        // Приватный конструктор для утилитного класса
+    }
+
+    /**
+     * Пропускает текущий тест, если какая-либо из зависимостей недоступна.
+     *
+     * @throws SkipException с описанием недоступной зависимости
+     */
+    public static void require(Dependency... dependencies) {
+        if (!isEnabled()) {
+            return;
+        }
+        Map<Dependency, Breaker> breakers = breakers();
+        for (Dependency dependency : dependencies) {
+            String reason = breakers.get(dependency).allow();
+            if (reason != null) {
+                throw new SkipException(String.format("[HEALTH] %s недоступна: %s", dependency.description, reason));
+            }
+        }
+    }
+
+    /**
+     * Учитывает результат теста в выключателях его зависимостей.
+     */
+    public static void recordResult(ITestResult result, Dependency... dependencies) {
+        if (!isEnabled() || result.getStatus() == ITestResult.SKIP) {
+            return;
+        }
+        Map<Dependency, Breaker> breakers = breakers();
+        for (Dependency dependency : dependencies) {
+            if (result.isSuccess()) {
+                breakers.get(dependency).onSuccess();
+            } else {
+                breakers.get(dependency).onFailure();
+            }
+        }
+    }
+
+    private static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("health.gate", "true"));
+    }
+
+    /**
+     * Создает выключатели, параллельно проверив все зависимости.
+     */
+    private static synchronized Map<Dependency, Breaker> breakers() {
+        if (BREAKERS.isEmpty()) {
+            long start = System.nanoTime();
+            Map<Dependency, CompletableFuture<String>> probes = new EnumMap<>(Dependency.class);
+            for (Dependency dependency : Dependency.values()) {
+                probes.put(dependency, CompletableFuture.supplyAsync(() -> probe(dependency)));
+            }
+            probes.forEach((dependency, probe) -> {
+                Breaker breaker = new Breaker(dependency);
+                breaker.update(probe.join());
+                BREAKERS.put(dependency, breaker);
+            });
+            System.out.printf("[HEALTH] Окружение проверено за %d мс: %s%n",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), BREAKERS.values());
+        }
+        return BREAKERS;
+    }
+
+    /**
+     * Проверяет зависимость.
+     *
+     * @return причина недоступности или {@code null}, если зависимость доступна
+     */
+    static String probe(Dependency dependency) {
+        try {
+            switch (dependency) {
+                case WIKIPEDIA:
+                    return probeHttp(TestEnvironment.wikipediaBaseUrl(), false);
+                case APPIUM:
+                    return probeHttp(WebDriverFactory.appiumServerUrl() + "/status", true);
+                case EMULATOR:
+                    return probeDevice();
+                default:
+                    return null;
+            }
+        } catch (RuntimeException e) {
+            return e.toString();
+        }
+    }
+
+    private static String probeHttp(String url, boolean requireOk) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(PROBE_TIMEOUT).GET().build();
+        try {
+            int status = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            boolean healthy = requireOk ? status == 200 : status < 500;
+            return healthy ? null : "HTTP " + status + " от " + url;
+        } catch (IOException e) {
+            return e.getClass().getSimpleName() + " при обращении к " + url;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "проверка прервана";
+        }
+    }
+
+    /**
+     * Проверяет, что {@code adb devices} видит хотя бы одно устройство. Если adb на этой
+     * машине нет (например, Appium запущен удаленно), проверка считается пройденной.
+     */
+    private static String probeDevice() {
+        try {
+            List<String> devices = AndroidDevicePool.adbDevices(
+                    System.getProperty("health.adb", "adb"), PROBE_TIMEOUT);
+            return devices.isEmpty() ? "adb devices: нет подключенных устройств" : null;
+        } catch (IOException e) {
+            return null;
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "проверка прервана";
+        }
+    }
+
+    /**
+     * Автоматический выключатель одной зависимости.
+     */
+    private static final class Breaker {
+
+        private final Dependency dependency;
+        private String reason;
+        private long openedAt;
+        private int consecutiveFailures;
+
+        private Breaker(Dependency dependency) {
+            this.dependency = dependency;
+        }
+
+        /**
+         * @return {@code null}, если тест можно выполнять, иначе причина пропуска
+         */
+        private synchronized String allow() {
+            if (reason != null && System.nanoTime() - openedAt >= COOLDOWN.toNanos()) {
+                update(probe(dependency));
+                if (reason == null) {
+                    System.out.println("[HEALTH] " + dependency.description + " снова доступна");
+                }
+            }
+            return reason;
+        }
+
+        private synchronized void onSuccess() {
+            consecutiveFailures = 0;
+        }
+
+        private synchronized void onFailure() {
+            if (reason != null || ++consecutiveFailures < FAILURE_THRESHOLD) {
+                return;
+            }
+            consecutiveFailures = 0;
+            update(probe(dependency));
+            if (reason != null) {
+                System.err.println("[HEALTH] " + dependency.description + " перестала отвечать: " + reason
+                        + ". Зависимые тесты будут пропущены");
+            }
+        }
+
+        private synchronized void update(String probeFailure) {
+            reason = probeFailure;
+            openedAt = System.nanoTime();
+        }
+
+        @Override
+        public synchronized String toString() {
+            return dependency.description + (reason == null ? " — доступна" : " — недоступна (" + reason + ")");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр гистограмм задержек команд WebDriver и методов Page Object.
+ *
+ * <p>Команды драйвера записывает {@link CommandLatencyListener}, методы Page Object
+ * оборачиваются в {@link #span(String)}. При завершении JVM отчет с перцентилями
+ * p50/p95/p99/max записывается в {@code target/latency-report.json}
+ * (путь меняется свойством {@code instrumentation.report}).
+ * Свойство {@code instrumentation.enabled=false} выключает сбор.
+ */
+public final class LatencyRecorder {
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("instrumentation.enabled", "true"));
+    private static final Path REPORT_FILE =
+            Paths.get(System.getProperty("instrumentation.report", "target/latency-report.json"));
+    private static final int CONSOLE_TOP_ENTRIES = 10;
+    private static final Span NOOP_SPAN = () -> { };
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(LatencyRecorder::writeReport));
+        }
+    }
+
+    private LatencyRecorder() {
+        // Приватный конструктор для утилитного класса
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Записывает длительность операции.
+     */
+    public static void record(String operation, long elapsedNanos) {
+        if (ENABLED) {
+            HISTOGRAMS.computeIfAbsent(operation, key -> new LatencyHistogram())
+                    .record(elapsedNanos / 1_000);
+        }
+    }
+
+    /**
+     * Начинает измерение операции. Длительность записывается при закрытии:
+     * <pre>{@code
+     * try (LatencyRecorder.Span ignored = LatencyRecorder.span("WikipediaPage.search")) {
+     *     ...
+     * }
+     * }</pre>
+     */
+    public static Span span(String operation) {
+        if (!ENABLED) {
+            return NOOP_SPAN;
+        }
+        long start = System.nanoTime();
+        return () -> record(operation, System.nanoTime() - start);
+    }
+
+    /**
+     * Записывает отчет по всем операциям в JSON и выводит самые медленные операции.
+     */
+    public static synchronized void writeReport() {
+        if (HISTOGRAMS.isEmpty()) {
+            return;
+        }
+
+        List<Map<String, Object>> operations = new ArrayList<>();
+        HISTOGRAMS.forEach((operation, histogram) -> operations.add(summarize(operation, histogram)));
+        operations.sort(Comparator.comparing((Map<String, Object> entry) -> (Double) entry.get("p95Ms"))
+                .reversed());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("operations", operations);
+
+        try {
+            Path parent = REPORT_FILE.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Files.write(REPORT_FILE, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Не удалось записать отчет о задержках: " + e.getMessage());
+            return;
+        }
+
+        System.out.println("[LATENCY] Отчет: " + REPORT_FILE.toAbsolutePath());
+        operations.stream().limit(CONSOLE_TOP_ENTRIES).forEach(entry -> System.out.printf(
+                "[LATENCY] %-45s n=%-5s p50=%.1f p95=%.1f p99=%.1f max=%.1f мс%n",
+                entry.get("operation"), entry.get("count"), entry.get("p50Ms"),
+                entry.get("p95Ms"), entry.get("p99Ms"), entry.get("maxMs")));
+    }
+
+    private static Map<String, Object> summarize(String operation, LatencyHistogram histogram) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("operation", operation);
+        entry.put("count", histogram.getCount());
+        entry.put("meanMs", toMillis(histogram.getMeanMicros()));
+        entry.put("p50Ms", toMillis(histogram.getPercentileMicros(0.50)));
+        entry.put("p95Ms", toMillis(histogram.getPercentileMicros(0.95)));
+        entry.put("p99Ms", toMillis(histogram.getPercentileMicros(0.99)));
+        entry.put("maxMs", toMillis(histogram.getMaxMicros()));
+        return entry;
+    }
+
+    private static double toMillis(double micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    /**
+     * Измерение операции, завершаемое в блоке try-with-resources.
+     */
+    @FunctionalInterface
+    public interface Span extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,304 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import ru.javabruse.pages.WikipediaApiPage;
+import ru.javabruse.pages.WikipediaPage;
+import ru.javabruse.pages.WikipediaSearch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный режим: сценарии {@link WikipediaPage} выполняются множеством
+ * одновременных виртуальных пользователей, у каждого своя сессия браузера из пула.
+ * При {@code test.mode=api} сценарий выполняется через {@link WikipediaApiPage} без браузера.
+ *
+ * <p>Сценарий пользователя: главная страница → поиск → заголовок статьи → случайная статья.
+ * Пропускная способность считается по успешным сценариям, завершенным после нарастания,
+ * и относится ко времени после нарастания.
+ * Параметры задаются системными свойствами:
+ * <ul>
+ *     <li>{@code load.users} — число пользователей (4);</li>
+ *     <li>{@code load.rampUp} — время в секундах, за которое стартуют все пользователи (10);</li>
+ *     <li>{@code load.thinkTime} — пауза в миллисекундах между сценариями пользователя (1000);</li>
+ *     <li>{@code load.duration} — длительность нагрузки в секундах (60);</li>
+ *     <li>{@code load.queries} — поисковые запросы через запятую;</li>
+ *     <li>{@code load.stub=true} — нагружать локальную {@link StubWikipediaServer}
+ *     вместо {@code wikipedia.base.url};</li>
+ *     <li>{@code load.sla.p95Ms}, {@code load.sla.errorRate}, {@code load.sla.minThroughput} —
+ *     пороги p95 сценария, доли ошибок и сценариев в секунду.</li>
+ * </ul>
+ * Отчет записывается в {@code target/load-report.json}; при нарушении порогов
+ * {@link #main(String[])} завершается исключением, и запуск через {@code exec:java} падает.
+ */
+public final class LoadRunner {
+
+    private static final Path REPORT_FILE = Paths.get("target", "load-report.json");
+    private static final List<String> STEPS =
+            Arrays.asList("open", "search", "getArticleTitle", "openRandomArticle", "journey");
+
+    private final int users;
+    private final Duration rampUp;
+    private final Duration thinkTime;
+    private final Duration duration;
+    private final List<String> queries;
+
+    private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+    private final LongAdder journeys = new LongAdder();
+    private final LongAdder measuredJourneys = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> errorTypes = new ConcurrentHashMap<>();
+    private volatile long measureFrom;
+
+    public LoadRunner(int users, Duration rampUp, Duration thinkTime, Duration duration, List<String> queries) {
+        this.users = users;
+        this.rampUp = rampUp;
+        this.thinkTime = thinkTime;
+        this.duration = duration;
+        this.queries = queries;
+        STEPS.forEach(step -> latencies.put(step, new LatencyHistogram()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("load.users", 4);
+        StubWikipediaServer stub = null;
+        if (Boolean.getBoolean("load.stub")) {
+            stub = new StubWikipediaServer();
+            System.setProperty("wikipedia.base.url", stub.getBaseUrl());
+        }
+        System.setProperty("driver.pool.size", String.valueOf(users));
+
+        LoadRunner runner = new LoadRunner(users,
+                Duration.ofSeconds(Long.getLong("load.rampUp", 10)),
+                Duration.ofMillis(Long.getLong("load.thinkTime", 1000)),
+                Duration.ofSeconds(Long.getLong("load.duration", 60)),
+                Arrays.asList(System.getProperty("load.queries", "Россия,Appium,Selenium").split(",")));
+
+        boolean slaMet;
+        try {
+            Duration elapsed = runner.run();
+            slaMet = runner.report(elapsed);
+        } finally {
+            WebDriverFactory.shutdownChromeDriverPool();
+            if (stub != null) {
+                stub.close();
+            }
+        }
+        if (!slaMet) {
+            throw new IllegalStateException("Нагрузочный прогон нарушил пороги SLA, отчет: "
+                    + REPORT_FILE.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Запускает пользователей с равномерным нарастанием и ждет окончания нагрузки.
+     *
+     * @return фактическая длительность прогона
+     */
+    public Duration run() throws InterruptedException {
+        System.out.printf("[LOAD] Пользователей: %d, нарастание: %d с, длительность: %d с, адрес: %s%n",
+                users, rampUp.getSeconds(), duration.getSeconds(), TestEnvironment.wikipediaBaseUrl());
+        if (!TestEnvironment.isApiMode()) {
+            WebDriverFactory.getChromeDriverPool();
+        }
+
+        long start = System.nanoTime();
+        measureFrom = start + rampUp.toNanos();
+        long deadline = start + rampUp.toNanos() + duration.toNanos();
+        ExecutorService executor = newUserExecutor();
+        List<Future<?>> userRuns = new ArrayList<>();
+        for (int user = 0; user < users; user++) {
+            long startDelay = users == 1 ? 0 : rampUp.toNanos() * user / (users - 1);
+            int userId = user;
+            userRuns.add(executor.submit(() -> runUser(userId, start + startDelay, deadline)));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(rampUp.plus(duration).toMillis() + TimeUnit.MINUTES.toMillis(5),
+                TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+        // Пользователь, который не смог начать сценарий (например, не получил сессию из пула), — тоже ошибка
+        for (Future<?> userRun : userRuns) {
+            if (!userRun.isDone() || userRun.isCancelled()) {
+                continue;
+            }
+            try {
+                userRun.get();
+            } catch (ExecutionException e) {
+                journeys.increment();
+                recordError(e.getCause());
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Виртуальные потоки (Java 21+) дешевы для оркестрации сотен пользователей;
+     * на более старых JVM используется пул обычных потоков по числу пользователей.
+     */
+    private ExecutorService newUserExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(users);
+        }
+    }
+
+    private void runUser(int userId, long startAt, long deadline) {
+        if (!sleepUntil(startAt)) {
+            return;
+        }
+        if (TestEnvironment.isApiMode()) {
+            runJourneys(userId, new WikipediaApiPage(), deadline);
+            return;
+        }
+        WebDriver driver = WebDriverFactory.acquireChromeDriver();
+        try {
+            runJourneys(userId, new WikipediaPage(driver), deadline);
+        } finally {
+            WebDriverFactory.releaseChromeDriver(driver);
+        }
+    }
+
+    private void runJourneys(int userId, WikipediaSearch page, long deadline) {
+        int iteration = 0;
+        while (System.nanoTime() < deadline) {
+            runJourney(page, queries.get((userId + iteration++) % queries.size()));
+            if (!sleepUntil(Math.min(deadline, System.nanoTime() + thinkTime.toNanos()))) {
+                return;
+            }
+        }
+    }
+
+    private void runJourney(WikipediaSearch page, String query) {
+        long journeyStart = System.nanoTime();
+        try {
+            timed("open", page::open);
+            timed("search", () -> page.search(query));
+            String[] title = new String[1];
+            timed("getArticleTitle", () -> title[0] = page.getArticleTitle());
+            if (title[0].isEmpty()) {
+                throw new IllegalStateException("Пустой заголовок статьи для запроса " + query);
+            }
+            timed("openRandomArticle", page::openRandomArticle);
+            long journeyEnd = System.nanoTime();
+            latencies.get("journey").record((journeyEnd - journeyStart) / 1_000);
+            if (journeyEnd >= measureFrom) {
+                measuredJourneys.increment();
+            }
+        } catch (RuntimeException e) {
+            recordError(e);
+        } finally {
+            journeys.increment();
+        }
+    }
+
+    private void recordError(Throwable error) {
+        errors.increment();
+        errorTypes.computeIfAbsent(error.getClass().getSimpleName(), key -> new LongAdder()).increment();
+    }
+
+    private void timed(String step, Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        latencies.get(step).record((System.nanoTime() - start) / 1_000);
+    }
+
+    /**
+     * Выводит и сохраняет результаты, проверяет пороги.
+     *
+     * @return {@code true}, если все заданные пороги соблюдены
+     */
+    public boolean report(Duration elapsed) throws IOException {
+        long total = journeys.sum();
+        double errorRate = total == 0 ? 0 : (double) errors.sum() / total;
+        double measuredSeconds = Math.max(1, elapsed.minus(rampUp).toMillis()) / 1000.0;
+        double throughput = measuredJourneys.sum() / measuredSeconds;
+        double journeyP95Ms = latencies.get("journey").getPercentileMicros(0.95) / 1000.0;
+
+        List<String> violations = new ArrayList<>();
+        checkMax(violations, "load.sla.p95Ms", "p95 сценария, мс", journeyP95Ms);
+        checkMax(violations, "load.sla.errorRate", "доля ошибок", errorRate);
+        String minThroughput = System.getProperty("load.sla.minThroughput");
+        if (minThroughput != null && throughput < Double.parseDouble(minThroughput)) {
+            violations.add(String.format(Locale.ROOT, "сценариев в секунду %.2f < %s", throughput, minThroughput));
+        }
+
+        Map<String, Object> steps = new LinkedHashMap<>();
+        latencies.forEach((step, histogram) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", histogram.getCount());
+            entry.put("p50Ms", histogram.getPercentileMicros(0.50) / 1000.0);
+            entry.put("p95Ms", histogram.getPercentileMicros(0.95) / 1000.0);
+            entry.put("p99Ms", histogram.getPercentileMicros(0.99) / 1000.0);
+            entry.put("maxMs", histogram.getMaxMicros() / 1000.0);
+            steps.put(step, entry);
+            System.out.printf(Locale.ROOT, "[LOAD] %-18s n=%-6d p50=%.0f p95=%.0f p99=%.0f max=%.0f мс%n", step,
+                    histogram.getCount(), entry.get("p50Ms"), entry.get("p95Ms"), entry.get("p99Ms"),
+                    entry.get("maxMs"));
+        });
+        Map<String, Long> errorCounts = new LinkedHashMap<>();
+        errorTypes.forEach((type, count) -> errorCounts.put(type, count.sum()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", users);
+        report.put("durationSeconds", elapsed.getSeconds());
+        report.put("journeys", total);
+        report.put("errors", errors.sum());
+        report.put("errorRate", errorRate);
+        report.put("measuredJourneys", measuredJourneys.sum());
+        report.put("measuredSeconds", measuredSeconds);
+        report.put("journeysPerSecond", throughput);
+        report.put("steps", steps);
+        report.put("errorTypes", errorCounts);
+        report.put("slaViolations", violations);
+        Files.createDirectories(REPORT_FILE.getParent());
+        Files.write(REPORT_FILE, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+
+        System.out.printf(Locale.ROOT, "[LOAD] Сценариев: %d, ошибок: %d (%.2f%%), %.2f сценариев/с%n",
+                total, errors.sum(), errorRate * 100, throughput);
+        violations.forEach(violation -> System.out.println("[LOAD] Нарушен порог: " + violation));
+        System.out.println("[LOAD] " + (violations.isEmpty() ? "SLA соблюдены" : "SLA нарушены")
+                + ", отчет: " + REPORT_FILE.toAbsolutePath());
+        return violations.isEmpty();
+    }
+
+    private static void checkMax(List<String> violations, String property, String name, double actual) {
+        String limit = System.getProperty(property);
+        if (limit != null && actual > Double.parseDouble(limit)) {
+            violations.add(String.format(Locale.ROOT, "%s %.3f > %s", name, actual, limit));
+        }
+    }
+
+    private static boolean sleepUntil(long nanoTime) {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Время загрузки страниц: сравнение профилей браузера и бюджеты производительности.
+ *
+ * <p>После каждого теста показатели Navigation Timing текущей страницы дописываются
+ * в {@code target/page-load/<профиль>.csv}. Два таких файла сравниваются командой
+ * {@code java ru.javabruse.utils.PageLoadStats target/page-load/standard.csv target/page-load/lean.csv}.
+ *
+ * <p>Если задан хотя бы один бюджет ({@code perf.budget.<тип>.<показатель>} или
+ * {@code perf.budget.<показатель>} для всех типов, например {@code -Dperf.budget.article.lcp=2500}),
+ * {@link #measure} после каждого перехода {@code WikipediaPage} тем же скриптом снимает
+ * показатели новой страницы, включая first paint и LCP. Показатели агрегируются
+ * по типу страницы ({@link PageType}) и в конце набора выводятся с префиксом {@code [PERF]}
+ * и записываются в {@code perf.report} (по умолчанию {@code target/page-load/budgets.json}).
+ * Превышения бюджета {@link PagePerformanceListener} выводит как предупреждения или,
+ * при {@code perf.budget.mode=fail}, завершает ими тест с ошибкой. Без бюджетов
+ * {@link #measure} не выполняет команд браузера.
+ */
+public final class PageLoadStats {
+
+    /**
+     * Тип страницы, по которому агрегируются показатели и задаются бюджеты.
+     */
+    public enum PageType {
+        MAIN("main"),
+        ARTICLE("article"),
+        SEARCH("search");
+
+        private final String key;
+
+        PageType(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private static final Path OUTPUT_DIR = Paths.get("target", "page-load");
+    private static final String HEADER = "test,domContentLoadedMs,loadMs,resources,transferredBytes";
+    private static final String BUDGET_PREFIX = "perf.budget.";
+    private static final String BUDGET_MODE = "perf.budget.mode";
+
+    /**
+     * Показатели с бюджетами в порядке вывода и их единицы.
+     */
+    private static final Map<String, String> METRICS = new LinkedHashMap<>();
+
+    static {
+        METRICS.put("ttfb", "мс");
+        METRICS.put("domContentLoaded", "мс");
+        METRICS.put("load", "мс");
+        METRICS.put("firstPaint", "мс");
+        METRICS.put("firstContentfulPaint", "мс");
+        METRICS.put("lcp", "мс");
+        METRICS.put("resources", "шт");
+        METRICS.put("transferredBytes", "байт");
+    }
+
+    private static final boolean BUDGETS_CONFIGURED = System.getProperties().stringPropertyNames().stream()
+            .anyMatch(name -> name.startsWith(BUDGET_PREFIX) && !BUDGET_MODE.equals(name));
+
+    /**
+     * Показатели текущего документа, если DOMContentLoaded уже наступил. {@code measured}
+     * сообщает, снимались ли показатели документа для бюджетов; при {@code arguments[0] == true}
+     * документ помечается измеренным, чтобы одна страница не попала в статистику дважды.
+     * LCP доступен только через PerformanceObserver: буферизованные записи забираются
+     * синхронно через {@code takeRecords()}.
+     */
+    private static final String NAVIGATION_TIMING_SCRIPT =
+            "var nav = performance.getEntriesByType('navigation')[0];"
+                    + "if (!nav || nav.domContentLoadedEventEnd === 0) { return null; }"
+                    + "var result = {url: location.href, measured: !!window.__pageLoadMeasured,"
+                    + "              ttfb: nav.responseStart, domContentLoaded: nav.domContentLoadedEventEnd};"
+                    + "if (arguments[0]) { window.__pageLoadMeasured = true; }"
+                    + "if (nav.loadEventEnd > 0) { result.load = nav.loadEventEnd; }"
+                    + "performance.getEntriesByType('paint').forEach(function (paint) {"
+                    + "  result[paint.name === 'first-paint' ? 'firstPaint' : 'firstContentfulPaint'] = paint.startTime;"
+                    + "});"
+                    + "try {"
+                    + "  var observer = new PerformanceObserver(function () {});"
+                    + "  observer.observe({type: 'largest-contentful-paint', buffered: true});"
+                    + "  var lcp = observer.takeRecords();"
+                    + "  observer.disconnect();"
+                    + "  if (lcp.length) { result.lcp = lcp[lcp.length - 1].startTime; }"
+                    + "} catch (e) {}"
+                    + "var resources = performance.getEntriesByType('resource');"
+                    + "var transferred = nav.transferSize || 0;"
+                    + "for (var i = 0; i < resources.length; i++) {"
+                    + "  transferred += resources[i].transferSize || 0;"
+                    + "}"
+                    + "result.resources = resources.length;"
+                    + "result.transferredBytes = transferred;"
+                    + "return result;";
+
+    private static final Map<PageType, Map<String, List<Double>>> SAMPLES = new EnumMap<>(PageType.class);
+    private static final ThreadLocal<List<String>> VIOLATIONS = ThreadLocal.withInitial(ArrayList::new);
+
+    private PageLoadStats() {
+        // Приватный конструктор для утилитного класса
+    }
+
+    /**
+     * Сохраняет показатели загрузки текущей страницы для указанного теста.
+     * Ошибки получения показателей не влияют на результат теста.
+     */
+    public static void capture(WebDriver driver, String testName) {
+        Map<?, ?> timing;
+        try {
+            timing = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(NAVIGATION_TIMING_SCRIPT, false);
+        } catch (WebDriverException e) {
+            System.err.println("Не удалось получить время загрузки страницы: " + e.getMessage());
+            return;
+        }
+        if (timing == null) {
+            return;
+        }
+
+        String row = String.format(Locale.ROOT, "%s,%.0f,%.0f,%d,%d", testName,
+                number(timing.get("domContentLoaded")), number(timing.get("load")),
+                (long) number(timing.get("resources")), (long) number(timing.get("transferredBytes")));
+        try {
+            append(BrowserProfile.current().name().toLowerCase(Locale.ROOT) + ".csv", row);
+        } catch (UncheckedIOException e) {
+            System.err.println("Не удалось сохранить время загрузки страницы: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Снимает показатели открытой страницы одним вызовом {@code executeScript} и проверяет бюджеты.
+     * Страница, которая еще не дошла до DOMContentLoaded или уже измерена, пропускается без
+     * ожидания. Без заданных бюджетов ничего не делает; ошибки не влияют на результат теста.
+     *
+     * @param expectedType тип страницы; страница результатов поиска определяется по адресу
+     */
+    public static void measure(WebDriver driver, PageType expectedType) {
+        if (!BUDGETS_CONFIGURED || !(driver instanceof JavascriptExecutor)) {
+            return;
+        }
+        Map<?, ?> timing;
+        try {
+            timing = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(NAVIGATION_TIMING_SCRIPT, true);
+        } catch (WebDriverException e) {
+            System.err.println("[PERF] Не удалось получить показатели страницы: " + e.getMessage());
+            return;
+        }
+        if (timing == null || Boolean.TRUE.equals(timing.get("measured"))) {
+            return;
+        }
+        String url = String.valueOf(timing.get("url"));
+        record(url.contains("search=") ? PageType.SEARCH : expectedType, url, timing);
+    }
+
+    /**
+     * Возвращает превышения бюджетов, накопленные текущим потоком, и очищает их.
+     */
+    public static List<String> drainViolations() {
+        List<String> violations = VIOLATIONS.get();
+        if (violations.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> drained = new ArrayList<>(violations);
+        violations.clear();
+        return drained;
+    }
+
+    /**
+     * Выводит сводку показателей по типам страниц и записывает отчет о бюджетах.
+     */
+    public static synchronized void writeBudgetReport() {
+        if (SAMPLES.isEmpty()) {
+            return;
+        }
+        Map<String, Object> pages = new LinkedHashMap<>();
+        SAMPLES.forEach((type, metrics) -> {
+            Map<String, Object> summaries = new LinkedHashMap<>();
+            metrics.forEach((metric, values) -> {
+                Map<String, Object> summary = summarize(values);
+                Double budget = budget(type, metric);
+                if (budget != null) {
+                    summary.put("budget", budget);
+                }
+                summaries.put(metric, summary);
+                System.out.printf(Locale.ROOT, "[PERF] %-8s %-22s n=%-4d p50=%.0f p95=%.0f max=%.0f %s%s%n",
+                        type.key, metric, values.size(), summary.get("p50"), summary.get("p95"), summary.get("max"),
+                        METRICS.get(metric), budget == null ? "" : String.format(Locale.ROOT, " (бюджет %.0f)", budget));
+            });
+            pages.put(type.key, summaries);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("pages", pages);
+        Path reportFile = Paths.get(System.getProperty("perf.report", OUTPUT_DIR.resolve("budgets.json").toString()));
+        try {
+            Files.createDirectories(reportFile.toAbsolutePath().getParent());
+            Files.write(reportFile, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+            System.out.println("[PERF] Отчет: " + reportFile.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("[PERF] Не удалось записать отчет: " + e.getMessage());
+        }
+    }
+
+    static boolean isFailOnBudget() {
+        return "fail".equalsIgnoreCase(System.getProperty(BUDGET_MODE, "warn"));
+    }
+
+    /**
+     * Сравнивает средние показатели двух прогонов по каждому тесту.
+     *
+     * @param args пути к CSV-файлам прогона «до» и «после»
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Использование: PageLoadStats <до.csv> <после.csv>");
+            System.exit(1);
+        }
+        Map<String, double[]> before = readAverages(Paths.get(args[0]));
+        Map<String, double[]> after = readAverages(Paths.get(args[1]));
+
+        System.out.printf("%-60s %12s %12s %8s %14s%n", "Тест", "DCL до, мс", "DCL после", "Δ, %", "Байт после");
+        for (Map.Entry<String, double[]> entry : before.entrySet()) {
+            double[] result = after.get(entry.getKey());
+            if (result == null) {
+                continue;
+            }
+            double dclBefore = entry.getValue()[0];
+            double dclAfter = result[0];
+            double change = dclBefore == 0 ? 0 : 100.0 * (dclAfter - dclBefore) / dclBefore;
+            System.out.printf(Locale.ROOT, "%-60s %12.0f %12.0f %8.1f %14.0f%n",
+                    entry.getKey(), dclBefore, dclAfter, change, result[3]);
+        }
+    }
+
+    private static synchronized void append(String fileName, String row) {
+        Path file = OUTPUT_DIR.resolve(fileName);
+        try {
+            Files.createDirectories(OUTPUT_DIR);
+            boolean isNew = Files.notExists(file);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (isNew) {
+                    writer.write(HEADER);
+                    writer.newLine();
+                }
+                writer.write(row);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать " + file, e);
+        }
+    }
+
+    /**
+     * Читает CSV и усредняет показатели по каждому тесту.
+     */
+    private static Map<String, double[]> readAverages(Path file) throws IOException {
+        Map<String, double[]> sums = new TreeMap<>();
+        Map<String, Integer> counts = new TreeMap<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",");
+            double[] sum = sums.computeIfAbsent(columns[0], key -> new double[4]);
+            for (int i = 0; i < sum.length; i++) {
+                sum[i] += Double.parseDouble(columns[i + 1]);
+            }
+            counts.merge(columns[0], 1, Integer::sum);
+        }
+        sums.forEach((test, sum) -> {
+            for (int i = 0; i < sum.length; i++) {
+                sum[i] /= counts.get(test);
+            }
+        });
+        return sums;
+    }
+
+    private static void record(PageType type, String url, Map<?, ?> timing) {
+        for (String metric : METRICS.keySet()) {
+            Object value = timing.get(metric);
+            if (!(value instanceof Number)) {
+                continue;
+            }
+            double number = ((Number) value).doubleValue();
+            synchronized (PageLoadStats.class) {
+                SAMPLES.computeIfAbsent(type, key -> new LinkedHashMap<>())
+                        .computeIfAbsent(metric, key -> new ArrayList<>())
+                        .add(number);
+            }
+            Double budget = budget(type, metric);
+            if (budget != null && number > budget) {
+                VIOLATIONS.get().add(String.format(Locale.ROOT, "%s: %s %.0f %s > бюджета %.0f (%s)",
+                        type.key, metric, number, METRICS.get(metric), budget, url));
+            }
+        }
+    }
+
+    private static Double budget(PageType type, String metric) {
+        String value = System.getProperty(BUDGET_PREFIX + type.key + "." + metric,
+                System.getProperty(BUDGET_PREFIX + metric));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("[PERF] Некорректный бюджет " + metric + " для " + type.key + ": " + value);
+            return null;
+        }
+    }
+
+    private static Map<String, Object> summarize(List<Double> values) {
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", sorted.size());
+        summary.put("p50", percentile(sorted, 0.50));
+        summary.put("p95", percentile(sorted, 0.95));
+        summary.put("max", sorted.get(sorted.size() - 1));
+        return summary;
+    }
+
+    private static double percentile(List<Double> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
@@ -0,0 +1,48 @@
+package ru.javabruse.utils;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+
+import java.util.List;
+
+/**
+ * Применяет бюджеты {@link PageLoadStats} к результату теста и выводит сводку в конце набора.
+ *
+ * <p>Превышения бюджетов, накопленные за время теста, выводятся с префиксом {@code [PERF]};
+ * при {@code perf.budget.mode=fail} пройденный тест помечается упавшим.
+ */
+public class PagePerformanceListener implements IInvokedMethodListener, ISuiteListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            PageLoadStats.drainViolations();
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        List<String> violations = PageLoadStats.drainViolations();
+        if (violations.isEmpty()) {
+            return;
+        }
+        String testName = testResult.getMethod().getMethodName();
+        violations.forEach(violation -> System.err.println("[PERF] " + testName + ": " + violation));
+        if (PageLoadStats.isFailOnBudget() && testResult.isSuccess()) {
+            testResult.setStatus(ITestResult.FAILURE);
+            testResult.setThrowable(new AssertionError("Превышен бюджет производительности страниц: "
+                    + String.join("; ", violations)));
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        PageLoadStats.writeBudgetReport();
+    }
+}
@@ -0,0 +1,233 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Снимок иерархии экрана Appium, разобранный в памяти.
+ *
+ * <p>Исходный код экрана запрашивается один раз ({@code getPageSource}), после чего
+ * поиск по id, классу, тексту и XPath выполняется локально без обращений к серверу.
+ * XPath на UiAutomator2 вычисляется медленно, а локально — за доли миллисекунды.
+ * Снимок отражает экран на момент получения: после действий, меняющих экран,
+ * нужно получить новый снимок.
+ */
+public final class PageSourceSnapshot {
+
+    private static final String RESOURCE_ID = "resource-id";
+    private static final String CONTENT_DESC = "content-desc";
+
+    private final Document document;
+
+    private PageSourceSnapshot(Document document) {
+        this.document = document;
+    }
+
+    /**
+     * Запрашивает исходный код текущего экрана и разбирает его.
+     */
+    public static PageSourceSnapshot capture(WebDriver driver) {
+        String source;
+        try (LatencyRecorder.Span ignored = LatencyRecorder.span("PageSourceSnapshot.capture")) {
+            source = driver.getPageSource();
+        }
+        return parse(source);
+    }
+
+    /**
+     * Разбирает исходный код экрана в формате UiAutomator2.
+     */
+    public static PageSourceSnapshot parse(String source) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return new PageSourceSnapshot(factory.newDocumentBuilder().parse(new InputSource(new StringReader(source))));
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            throw new IllegalStateException("Не удалось разобрать исходный код экрана", e);
+        }
+    }
+
+    /**
+     * Находит элементы по локатору Selenium или Appium.
+     * Поддерживаются {@code By.id}, {@code By.xpath}, {@code By.className}
+     * и {@code AppiumBy.accessibilityId}.
+     *
+     * @throws IllegalArgumentException для остальных стратегий
+     */
+    public List<ScreenElement> findAll(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            throw new IllegalArgumentException("Локатор не поддерживается снимком экрана: " + locator);
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        String value = String.valueOf(parameters.value());
+        switch (parameters.using()) {
+            case "id":
+                return findAllByAttribute(RESOURCE_ID, value);
+            case "css selector":
+                if (value.startsWith("#")) {
+                    // By.id передается как CSS-селектор с экранированными символами
+                    return findAllByAttribute(RESOURCE_ID, value.substring(1).replace("\\", ""));
+                }
+                if (value.startsWith(".")) {
+                    return findAllByClass(value.substring(1).replace("\\", ""));
+                }
+                break;
+            case "accessibility id":
+                return findAllByAttribute(CONTENT_DESC, value);
+            case "class name":
+                return findAllByClass(value);
+            case "xpath":
+                return findAllByXPath(value);
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Локатор не поддерживается снимком экрана: " + locator);
+    }
+
+    /**
+     * Первый элемент по локатору.
+     */
+    public Optional<ScreenElement> find(By locator) {
+        List<ScreenElement> elements = findAll(locator);
+        return elements.isEmpty() ? Optional.empty() : Optional.of(elements.get(0));
+    }
+
+    /**
+     * Проверяет, что элемент есть на экране и отображается.
+     */
+    public boolean isDisplayed(By locator) {
+        return find(locator).map(ScreenElement::isDisplayed).orElse(false);
+    }
+
+    public Optional<ScreenElement> findById(String resourceId) {
+        List<ScreenElement> elements = findAllByAttribute(RESOURCE_ID, resourceId);
+        return elements.isEmpty() ? Optional.empty() : Optional.of(elements.get(0));
+    }
+
+    public List<ScreenElement> findAllByClass(String className) {
+        return findAllByXPath("//*[@class=" + quote(className) + "]");
+    }
+
+    public Optional<ScreenElement> findByText(String text) {
+        List<ScreenElement> elements = findAllByAttribute("text", text);
+        return elements.isEmpty() ? Optional.empty() : Optional.of(elements.get(0));
+    }
+
+    /**
+     * Вычисляет XPath по снимку.
+     *
+     * @throws IllegalArgumentException если выражение некорректно
+     */
+    public List<ScreenElement> findAllByXPath(String expression) {
+        NodeList nodes;
+        try {
+            nodes = (NodeList) XPathFactory.newInstance().newXPath()
+                    .evaluate(expression, document, XPathConstants.NODESET);
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Некорректный XPath: " + expression, e);
+        }
+        List<ScreenElement> elements = new ArrayList<>(nodes.getLength());
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node node = nodes.item(i);
+            if (node instanceof Element) {
+                elements.add(new ScreenElement((Element) node));
+            }
+        }
+        return elements;
+    }
+
+    private List<ScreenElement> findAllByAttribute(String attribute, String value) {
+        return findAllByXPath("//*[@" + attribute + "=" + quote(value) + "]");
+    }
+
+    /**
+     * Записывает строку как литерал XPath 1.0, который не поддерживает экранирование кавычек.
+     */
+    private static String quote(String value) {
+        if (!value.contains("'")) {
+            return "'" + value + "'";
+        }
+        if (!value.contains("\"")) {
+            return "\"" + value + "\"";
+        }
+        return "concat('" + value.replace("'", "', \"'\", '") + "')";
+    }
+
+    /**
+     * Неизменяемое представление элемента экрана из снимка.
+     */
+    public static final class ScreenElement {
+
+        private final String className;
+        private final Map<String, String> attributes;
+
+        private ScreenElement(Element element) {
+            Map<String, String> values = new LinkedHashMap<>();
+            NamedNodeMap nodeAttributes = element.getAttributes();
+            for (int i = 0; i < nodeAttributes.getLength(); i++) {
+                Node attribute = nodeAttributes.item(i);
+                values.put(attribute.getNodeName(), attribute.getNodeValue());
+            }
+            this.className = values.getOrDefault("class", element.getTagName());
+            this.attributes = Collections.unmodifiableMap(values);
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getResourceId() {
+            return attributes.getOrDefault(RESOURCE_ID, "");
+        }
+
+        public String getText() {
+            return attributes.getOrDefault("text", "");
+        }
+
+        public String getContentDescription() {
+            return attributes.getOrDefault(CONTENT_DESC, "");
+        }
+
+        /** Элементы без атрибута {@code displayed} считаются отображаемыми. */
+        public boolean isDisplayed() {
+            return !"false".equals(attributes.get("displayed"));
+        }
+
+        public boolean isEnabled() {
+            return !"false".equals(attributes.get("enabled"));
+        }
+
+        /** Значение атрибута или {@code null}, если атрибута нет. */
+        public String getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public String toString() {
+            return className + attributes;
+        }
+    }
+}
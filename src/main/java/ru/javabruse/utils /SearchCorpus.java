@@ -0,0 +1,200 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Потоковое чтение корпуса поисковых запросов: в памяти находится только текущая строка файла.
+ *
+ * <p>Формат определяется по расширению. В {@code .jsonl} каждая строка — объект
+ * {@code {"query": "Россия", "expectedTitle": "Россия"}}. В остальных файлах строки
+ * в формате CSV {@code запрос,ожидаемый заголовок}; поля с запятыми берутся в кавычки,
+ * строка заголовка {@code query,...} и строки с {@code #} пропускаются.
+ * Если ожидаемый заголовок не указан, достаточно того, что поиск открыл какую-либо статью.
+ * Номер строки файла идентифицирует запрос в {@link CorpusResultLog}.
+ */
+public final class SearchCorpus implements Iterator<SearchCorpus.Row>, Closeable {
+
+    private final Path file;
+    private final BufferedReader reader;
+    private final boolean jsonLines;
+    private final Json json = new Json();
+    private int lineNumber;
+    private Row next;
+
+    private SearchCorpus(Path file, BufferedReader reader) {
+        this.file = file;
+        this.reader = reader;
+        this.jsonLines = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".jsonl");
+    }
+
+    /**
+     * Открывает файл корпуса. Читатель нужно закрыть после использования.
+     */
+    public static SearchCorpus open(Path file) throws IOException {
+        return new SearchCorpus(file, Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Имя корпуса — имя файла без расширения.
+     */
+    public String getName() {
+        String fileName = file.getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        return extension > 0 ? fileName.substring(0, extension) : fileName;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readRow();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row readRow() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                Row row = jsonLines ? parseJson(trimmed) : parseCsv(trimmed);
+                if (row != null) {
+                    return row;
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать корпус " + file, e);
+        }
+    }
+
+    private Row parseJson(String line) {
+        Map<String, Object> fields;
+        try {
+            fields = json.toType(line, Json.MAP_TYPE);
+        } catch (JsonException e) {
+            throw new IllegalArgumentException(file + ":" + lineNumber + ": некорректный JSON: " + e.getMessage(), e);
+        }
+        Object query = fields.get("query");
+        if (query == null) {
+            throw new IllegalArgumentException(file + ":" + lineNumber + ": нет поля query");
+        }
+        Object expectedTitle = fields.get("expectedTitle");
+        return new Row(lineNumber, query.toString(), expectedTitle == null ? null : expectedTitle.toString());
+    }
+
+    private Row parseCsv(String line) {
+        List<String> columns = splitCsv(line);
+        if (lineNumber == 1 && "query".equalsIgnoreCase(columns.get(0))) {
+            return null;
+        }
+        return new Row(lineNumber, columns.get(0), columns.size() > 1 ? columns.get(1) : null);
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    column.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(column.toString().trim());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString().trim());
+        return columns;
+    }
+
+    /**
+     * Поисковый запрос корпуса.
+     */
+    public static final class Row {
+
+        private final int lineNumber;
+        private final String query;
+        private final String expectedTitle;
+
+        private Row(int lineNumber, String query, String expectedTitle) {
+            this.lineNumber = lineNumber;
+            this.query = query;
+            this.expectedTitle = expectedTitle == null || expectedTitle.isEmpty() ? null : expectedTitle;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        /**
+         * Ожидаемый заголовок статьи или {@code null}, если подходит любая статья.
+         */
+        public String getExpectedTitle() {
+            return expectedTitle;
+        }
+
+        /**
+         * Проверяет найденный заголовок.
+         */
+        public boolean matches(String actualTitle) {
+            if (actualTitle == null || actualTitle.isEmpty()) {
+                return false;
+            }
+            return expectedTitle == null || expectedTitle.equals(actualTitle);
+        }
+
+        @Override
+        public String toString() {
+            return lineNumber + ": '" + query + "'" + (expectedTitle == null ? "" : " -> '" + expectedTitle + "'");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package ru.javabruse.utils;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Делит тесты между JVM по ожидаемой длительности из {@link TestTimings}.
+ *
+ * <p>Номер шарда и число шардов задаются свойствами {@code shard.index} (с нуля)
+ * и {@code shard.count}. Каждая JVM строит один и тот же план и оставляет себе
+ * только свои тесты. План строится жадно (LPT): тесты по убыванию ожидаемой
+ * длительности назначаются в наименее загруженный шард. Тесты, связанные через
+ * {@code dependsOnMethods} или {@code dependsOnGroups}, всегда попадают в один шард.
+ * Тесты без истории оцениваются медианой известных длительностей. Без {@code shard.count}
+ * или при значении 1 выполняются все тесты.
+ */
+public class ShardPlanner implements IMethodInterceptor {
+
+    private static final long UNKNOWN_DURATION_MILLIS = 10_000;
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        int shardCount = Integer.getInteger("shard.count", 1);
+        int shardIndex = Integer.getInteger("shard.index", 0);
+        if (shardCount <= 1) {
+            return methods;
+        }
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException(String.format(
+                    "shard.index должен быть от 0 до %d, указан %d", shardCount - 1, shardIndex));
+        }
+
+        Map<String, Integer> invocations = new LinkedHashMap<>();
+        methods.forEach(method -> invocations.merge(TestTimings.testId(method.getMethod()), 1, Integer::sum));
+
+        TestTimings timings = TestTimings.load(TestTimings.storeFile());
+        List<Shard> shards = plan(invocations, dependencies(methods), timings, shardCount);
+        Shard shard = shards.get(shardIndex);
+
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            if (shard.testIds.contains(TestTimings.testId(method.getMethod()))) {
+                selected.add(method);
+            }
+        }
+        long totalMillis = shards.stream().mapToLong(planned -> planned.expectedMillis).sum();
+        System.out.printf(Locale.ROOT, "[SHARD] Шард %d/%d: тестов %d из %d, ожидаемое время %.1f с из %.1f с%n",
+                shardIndex + 1, shardCount, selected.size(), methods.size(),
+                shard.expectedMillis / 1000.0, totalMillis / 1000.0);
+        return selected;
+    }
+
+    /**
+     * Распределяет независимые тесты по шардам.
+     *
+     * @see #plan(Map, Map, TestTimings, int)
+     */
+    public static List<Shard> plan(Map<String, Integer> invocations, TestTimings timings, int shardCount) {
+        return plan(invocations, Collections.emptyMap(), timings, shardCount);
+    }
+
+    /**
+     * Распределяет тесты по шардам. Результат детерминирован: одинаковые
+     * входные данные дают одинаковый план во всех JVM.
+     *
+     * @param invocations идентификаторы тестов и число их экземпляров
+     * @param dependencies тесты, от которых зависит тест; связанные тесты планируются вместе
+     */
+    public static List<Shard> plan(Map<String, Integer> invocations, Map<String, ? extends Collection<String>> dependencies,
+                                   TestTimings timings, int shardCount) {
+        long unknown = timings.median(UNKNOWN_DURATION_MILLIS);
+        Map<String, Long> expected = new HashMap<>();
+        invocations.forEach((testId, count) ->
+                expected.put(testId, timings.expected(testId).orElse(unknown) * count));
+
+        // Связанные тесты объединяются в группы, группа называется по первому тесту в алфавитном порядке
+        Map<String, TreeSet<String>> groups = new HashMap<>();
+        for (String testId : invocations.keySet()) {
+            groups.put(testId, new TreeSet<>(Collections.singleton(testId)));
+        }
+        dependencies.forEach((testId, dependsOn) -> dependsOn.forEach(dependency -> {
+            TreeSet<String> group = groups.get(testId);
+            TreeSet<String> other = groups.get(dependency);
+            if (group != null && other != null && group != other) {
+                group.addAll(other);
+                other.forEach(member -> groups.put(member, group));
+            }
+        }));
+        Map<String, TreeSet<String>> units = new TreeMap<>();
+        groups.values().forEach(group -> units.put(group.first(), group));
+        Map<String, Long> unitMillis = new HashMap<>();
+        units.forEach((name, members) ->
+                unitMillis.put(name, members.stream().mapToLong(expected::get).sum()));
+
+        List<String> ordered = new ArrayList<>(units.keySet());
+        ordered.sort(Comparator.comparing((String name) -> unitMillis.get(name)).reversed());
+
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard());
+        }
+        for (String name : ordered) {
+            Shard lightest = shards.stream().min(Comparator.comparingLong(shard -> shard.expectedMillis)).get();
+            lightest.testIds.addAll(units.get(name));
+            lightest.expectedMillis += unitMillis.get(name);
+        }
+        return shards;
+    }
+
+    /**
+     * Зависимости тестов через {@code dependsOnMethods} и {@code dependsOnGroups}.
+     */
+    private static Map<String, Set<String>> dependencies(List<IMethodInstance> methods) {
+        Map<String, Set<String>> testIdsByGroup = new HashMap<>();
+        for (IMethodInstance instance : methods) {
+            for (String group : instance.getMethod().getGroups()) {
+                testIdsByGroup.computeIfAbsent(group, key -> new TreeSet<>())
+                        .add(TestTimings.testId(instance.getMethod()));
+            }
+        }
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            Set<String> dependsOn = dependencies.computeIfAbsent(TestTimings.testId(method), key -> new TreeSet<>());
+            for (String qualifiedName : method.getMethodsDependedUpon()) {
+                // TestNG возвращает полное имя метода: пакет.Класс.метод
+                int separator = qualifiedName.lastIndexOf('.');
+                dependsOn.add(qualifiedName.substring(0, separator) + "#" + qualifiedName.substring(separator + 1));
+            }
+            for (String group : method.getGroupsDependedUpon()) {
+                dependsOn.addAll(testIdsByGroup.getOrDefault(group, Collections.emptySet()));
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Тесты одного шарда и их суммарная ожидаемая длительность.
+     */
+    public static final class Shard {
+
+        private final Collection<String> testIds = new TreeSet<>();
+        private long expectedMillis;
+
+        public Collection<String> getTestIds() {
+            return testIds;
+        }
+
+        public long getExpectedMillis() {
+            return expectedMillis;
+        }
+    }
+}
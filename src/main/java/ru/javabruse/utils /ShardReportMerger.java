@@ -0,0 +1,145 @@
+package ru.javabruse.utils;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Объединяет результаты шардов в один отчет.
+ *
+ * <p>Ищет в каталоге шардов (аргумент, по умолчанию {@code target/shards}) подкаталоги
+ * с {@code testng-results.xml} и {@code test-timings.properties}. Все наборы тестов
+ * переносятся в общий {@code testng-results.xml} с пересчитанными итогами,
+ * а измеренные длительности — в общее хранилище {@link TestTimings}.
+ * Если в каком-либо шарде есть упавшие тесты, {@link #main(String[])} завершается исключением,
+ * и запуск через {@code exec:java} падает.
+ */
+public final class ShardReportMerger {
+
+    private static final String RESULTS_FILE = "testng-results.xml";
+    private static final String TIMINGS_FILE = "test-timings.properties";
+    private static final String[] COUNTERS = {"total", "passed", "failed", "skipped", "ignored"};
+
+    private ShardReportMerger() {
+        // Приватный конструктор для утилитного класса
+    }
+
+    public static void main(String[] args) throws Exception {
+        long failed = merge(Paths.get(args.length > 0 ? args[0] : "target/shards"));
+        if (failed > 0) {
+            throw new IllegalStateException("В шардах упало тестов: " + failed);
+        }
+    }
+
+    /**
+     * Объединяет отчеты и длительности всех шардов каталога.
+     *
+     * @return количество упавших тестов во всех шардах
+     */
+    static long merge(Path shardsDirectory) throws Exception {
+        List<Path> shards;
+        try (Stream<Path> children = Files.list(shardsDirectory)) {
+            shards = children.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+        }
+
+        Document merged = mergeResults(shards);
+        Path output = shardsDirectory.resolve(RESULTS_FILE);
+        write(merged, output);
+        mergeTimings(shards);
+
+        Element root = merged.getDocumentElement();
+        System.out.printf("[SHARD] Объединено шардов: %d. Всего: %s, пройдено: %s, упало: %s, пропущено: %s%n",
+                shards.size(), root.getAttribute("total"), root.getAttribute("passed"),
+                root.getAttribute("failed"), root.getAttribute("skipped"));
+        System.out.println("[SHARD] Общий отчет: " + output.toAbsolutePath());
+        return Long.parseLong(root.getAttribute("failed"));
+    }
+
+    /**
+     * Переносит наборы тестов всех шардов в один документ и суммирует итоги.
+     */
+    static Document mergeResults(List<Path> shards)
+            throws ParserConfigurationException, IOException, SAXException {
+        DocumentBuilder builder = newDocumentBuilder();
+        Document merged = builder.newDocument();
+        Element mergedRoot = merged.createElement("testng-results");
+        merged.appendChild(mergedRoot);
+        mergedRoot.appendChild(merged.createElement("reporter-output"));
+        long[] totals = new long[COUNTERS.length];
+
+        for (Path shard : shards) {
+            Path results = shard.resolve(RESULTS_FILE);
+            if (!Files.isRegularFile(results)) {
+                System.err.println("[SHARD] Нет результатов шарда: " + shard);
+                continue;
+            }
+            Element root = builder.parse(results.toFile()).getDocumentElement();
+            for (int i = 0; i < COUNTERS.length; i++) {
+                String value = root.getAttribute(COUNTERS[i]);
+                totals[i] += value.isEmpty() ? 0 : Long.parseLong(value);
+            }
+            NodeList suites = root.getElementsByTagName("suite");
+            for (int i = 0; i < suites.getLength(); i++) {
+                Node suite = merged.importNode(suites.item(i), true);
+                ((Element) suite).setAttribute("name",
+                        ((Element) suite).getAttribute("name") + " [" + shard.getFileName() + "]");
+                mergedRoot.appendChild(suite);
+            }
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            mergedRoot.setAttribute(COUNTERS[i], String.valueOf(totals[i]));
+        }
+        return merged;
+    }
+
+    private static void mergeTimings(List<Path> shards) {
+        Path store = TestTimings.storeFile();
+        TestTimings timings = TestTimings.load(store);
+        int merged = 0;
+        for (Path shard : shards) {
+            Path shardTimings = shard.resolve(TIMINGS_FILE);
+            if (Files.isRegularFile(shardTimings)) {
+                timings.putAll(TestTimings.load(shardTimings));
+                merged++;
+            }
+        }
+        if (merged > 0) {
+            timings.save(store);
+            System.out.println("[SHARD] Длительности тестов обновлены: " + store.toAbsolutePath());
+        }
+    }
+
+    private static DocumentBuilder newDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        return factory.newDocumentBuilder();
+    }
+
+    private static void write(Document document, Path output) throws TransformerException {
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        transformer.transform(new DOMSource(document), new StreamResult(output.toFile()));
+    }
+}
@@ -0,0 +1,201 @@
+package ru.javabruse.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Локальная статическая имитация Википедии для бенчмарков и нагрузочных прогонов.
+ *
+ * <p>Страницы повторяют разметку, на которую опираются Page Object:
+ * логотип {@code p-logo}, поле {@code searchInput}, кнопка {@code searchButton},
+ * ссылка {@code n-randompage}, заголовок {@code firstHeading} и блок {@code bodyContent}.
+ * Поиск через {@code /w/index.php?search=} перенаправляет на статью с таким названием,
+ * {@code /wiki/Special:Random} — на одну из {@value #RANDOM_ARTICLE_COUNT} статей.
+ * {@code /w/api.php} отвечает на запросы {@code siteinfo}, {@code titles},
+ * {@code list=random} и {@code opensearch} в формате {@code formatversion=2};
+ * статьи с названием, начинающимся на {@value #MISSING_TITLE_PREFIX}, считаются несуществующими.
+ */
+public class StubWikipediaServer implements AutoCloseable {
+
+    public static final String MAIN_PAGE_TITLE = "Заглавная_страница";
+
+    private static final String MISSING_TITLE_PREFIX = "Несуществующ";
+    private static final int RANDOM_ARTICLE_COUNT = 1000;
+    private static final int HANDLER_THREADS = 16;
+
+    private static final String PAGE_TEMPLATE = "<!DOCTYPE html>"
+            + "<html lang=\"ru\"><head><meta charset=\"UTF-8\"><title>%1$s — Википедия</title></head>"
+            + "<body>"
+            + "<div id=\"p-logo\"><a href=\"/wiki/" + MAIN_PAGE_TITLE + "\">Википедия</a></div>"
+            + "<ul><li id=\"n-randompage\"><a href=\"/wiki/Special:Random\">Случайная статья</a></li></ul>"
+            + "<form action=\"/w/index.php\" id=\"searchform\">"
+            + "<input type=\"search\" name=\"search\" id=\"searchInput\" placeholder=\"Искать в Википедии\">"
+            + "<input type=\"submit\" id=\"searchButton\" value=\"Найти\">"
+            + "</form>"
+            + "<h1 id=\"firstHeading\">%1$s</h1>"
+            + "<div id=\"bodyContent\"><p>Статья «%1$s» локальной копии Википедии.</p></div>"
+            + "</body></html>";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Запускает сервер на свободном порту локального интерфейса.
+     */
+    public StubWikipediaServer() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось запустить имитацию Википедии", e);
+        }
+        executor = Executors.newFixedThreadPool(HANDLER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "stub-wikipedia");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Адрес сервера со слешем в конце, например {@code http://127.0.0.1:53011/}.
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Адрес главной страницы имитации.
+     */
+    public String getMainPageUrl() {
+        return getBaseUrl() + "wiki/" + MAIN_PAGE_TITLE;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Обрабатывает запрос. Наследники могут добавлять собственные маршруты,
+     * вызывая этот метод для остальных адресов.
+     */
+    protected void handle(HttpExchange exchange) throws IOException {
+        try {
+            URI uri = exchange.getRequestURI();
+            String path = uri.getPath();
+            Map<String, String> query = parseQuery(uri.getRawQuery());
+
+            if ("/".equals(path)) {
+                redirect(exchange, "/wiki/" + encodeTitle(MAIN_PAGE_TITLE));
+            } else if ("/w/index.php".equals(path) && query.containsKey("search")) {
+                redirect(exchange, "/wiki/" + encodeTitle(query.get("search")));
+            } else if ("/wiki/Special:Random".equals(path)) {
+                redirect(exchange, "/wiki/" + encodeTitle(randomTitle()));
+            } else if ("/w/api.php".equals(path)) {
+                send(exchange, 200, "application/json; charset=UTF-8", new Json().toJson(apiResponse(query)));
+            } else if (path.startsWith("/wiki/")) {
+                String title = path.substring("/wiki/".length()).replace('_', ' ');
+                sendHtml(exchange, String.format(PAGE_TEMPLATE, escapeHtml(title)));
+            } else {
+                send(exchange, 404, "text/plain; charset=UTF-8", "Not found");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Object apiResponse(Map<String, String> query) {
+        if ("opensearch".equals(query.get("action"))) {
+            String search = query.getOrDefault("search", "");
+            return Arrays.asList(search, Collections.singletonList(search),
+                    Collections.singletonList(""), Collections.singletonList("/wiki/" + encodeTitle(search)));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        if ("general".equals(query.get("siprop"))) {
+            result.put("general", Map.of("mainpage", MAIN_PAGE_TITLE.replace('_', ' ')));
+        }
+        if ("random".equals(query.get("list"))) {
+            result.put("random", Collections.singletonList(Map.of("ns", 0, "title", randomTitle())));
+        }
+        if (query.containsKey("titles")) {
+            String title = query.get("titles").replace('_', ' ').trim();
+            Map<String, Object> page = new LinkedHashMap<>();
+            page.put("ns", 0);
+            page.put("title", title);
+            if (title.startsWith(MISSING_TITLE_PREFIX)) {
+                page.put("missing", true);
+            }
+            result.put("pages", Collections.singletonList(page));
+        }
+        return Map.of("batchcomplete", true, "query", result);
+    }
+
+    private static String randomTitle() {
+        return "Статья " + ThreadLocalRandom.current().nextInt(RANDOM_ARTICLE_COUNT);
+    }
+
+    protected static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    protected static void send(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static void sendHtml(HttpExchange exchange, String html) throws IOException {
+        send(exchange, 200, "text/html; charset=UTF-8", html);
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().set("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    private static String encodeTitle(String title) {
+        return URLEncoder.encode(title.trim().replace(' ', '_'), StandardCharsets.UTF_8);
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,89 @@
+package ru.javabruse.utils;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Настройки окружения, в котором выполняются тесты.
+ *
+ * <p>Адрес Википедии задается свойством {@code wikipedia.base.url}. Свойство
+ * {@code fixtures.mode} переключает тесты на локальный {@link FixtureServer}:
+ * {@code record} записывает ответы сайта в каталог {@code fixtures.dir},
+ * {@code replay} отдает их без обращений в сеть, {@code live} (по умолчанию)
+ * работает с сайтом напрямую. Записываются только ответы самой Википедии; при воспроизведении
+ * браузер не разрешает имена других хостов, поэтому их ресурсы не загружаются.
+ *
+ * <p>Свойство {@code test.mode=api} переводит тесты содержимого на HTTP-реализацию
+ * Page Object без браузера; по умолчанию используется браузер ({@code browser}).
+ */
+public final class TestEnvironment {
+
+    private static final String DEFAULT_WIKIPEDIA_BASE_URL = "https://ru.wikipedia.org/";
+    private static final String MAIN_PAGE_PATH = "wiki/Заглавная_страница";
+    private static final String DEFAULT_FIXTURES_DIR = "fixtures/wikipedia";
+    private static final String LIVE_MODE = "live";
+    private static final String API_TEST_MODE = "api";
+
+    private static String wikipediaBaseUrl;
+    private static FixtureServer fixtureServer;
+
+    private TestEnvironment() {
+        // Приватный конструктор для утилитного класса
+    }
+
+    /**
+     * Возвращает базовый адрес Википедии со слешем в конце.
+     * В режимах записи и воспроизведения при первом обращении запускается сервер фикстур.
+     */
+    public static synchronized String wikipediaBaseUrl() {
+        if (wikipediaBaseUrl == null) {
+            wikipediaBaseUrl = resolveWikipediaBaseUrl();
+        }
+        return wikipediaBaseUrl;
+    }
+
+    /**
+     * Возвращает адрес главной страницы Википедии.
+     */
+    public static String wikipediaMainPageUrl() {
+        return wikipediaBaseUrl() + MAIN_PAGE_PATH;
+    }
+
+    /**
+     * Проверяет, воспроизводятся ли записанные ответы без обращений в сеть.
+     */
+    public static boolean isFixtureReplay() {
+        String mode = System.getProperty("fixtures.mode", LIVE_MODE).trim();
+        return FixtureServer.Mode.REPLAY.name().equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Проверяет, выбран ли режим проверки содержимого через HTTP без браузера.
+     */
+    public static boolean isApiMode() {
+        return API_TEST_MODE.equalsIgnoreCase(System.getProperty("test.mode", "browser").trim());
+    }
+
+    /**
+     * Исходный адрес Википедии без учета сервера фикстур.
+     */
+    public static String upstreamWikipediaBaseUrl() {
+        String url = System.getProperty("wikipedia.base.url", DEFAULT_WIKIPEDIA_BASE_URL);
+        return url.endsWith("/") ? url : url + "/";
+    }
+
+    private static String resolveWikipediaBaseUrl() {
+        String mode = System.getProperty("fixtures.mode", LIVE_MODE).trim().toUpperCase(Locale.ROOT);
+        if (LIVE_MODE.equalsIgnoreCase(mode)) {
+            return upstreamWikipediaBaseUrl();
+        }
+
+        fixtureServer = new FixtureServer(
+                Paths.get(System.getProperty("fixtures.dir", DEFAULT_FIXTURES_DIR)),
+                FixtureServer.Mode.valueOf(mode),
+                URI.create(upstreamWikipediaBaseUrl())).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(fixtureServer::close));
+        return fixtureServer.getBaseUrl();
+    }
+}
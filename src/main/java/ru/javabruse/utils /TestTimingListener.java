@@ -0,0 +1,54 @@
+package ru.javabruse.utils;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Записывает фактическую длительность пройденных и упавших тестов в {@link TestTimings}.
+ *
+ * <p>По окончании набора хранилище сохраняется в {@code test.timings.output}
+ * (по умолчанию — в общий файл {@code test.timings.file}). Шарды пишут каждый
+ * в свой файл только измеренные ими тесты, а {@link ShardReportMerger}
+ * объединяет эти файлы с общим хранилищем.
+ * Пропущенные тесты не учитываются: их длительность ничего не говорит о прогоне.
+ */
+public class TestTimingListener implements ITestListener, ISuiteListener {
+
+    private final TestTimings timings = TestTimings.load(TestTimings.storeFile());
+    private final Set<String> measured = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Path store = TestTimings.storeFile();
+        Path output = Paths.get(System.getProperty("test.timings.output", store.toString()));
+        if (output.toAbsolutePath().equals(store.toAbsolutePath())) {
+            timings.save(output);
+        } else {
+            timings.only(measured).save(output);
+        }
+        System.out.println("[SHARD] Длительности тестов сохранены: " + output.toAbsolutePath());
+    }
+
+    private void record(ITestResult result) {
+        String testId = TestTimings.testId(result.getMethod());
+        timings.record(testId, result.getEndMillis() - result.getStartMillis());
+        measured.add(testId);
+    }
+}
@@ -0,0 +1,145 @@
+package ru.javabruse.utils;
+
+import org.testng.ITestNGMethod;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Хранилище ожидаемой длительности тестов по результатам прошлых прогонов.
+ *
+ * <p>Длительность каждого теста хранится в миллисекундах как экспоненциальное
+ * скользящее среднее, чтобы единичный медленный прогон не перекраивал шарды.
+ * Файл хранилища задается свойством {@code test.timings.file}
+ * (по умолчанию {@value #DEFAULT_FILE}) и имеет формат {@code класс#метод=мс}.
+ */
+public final class TestTimings {
+
+    public static final String DEFAULT_FILE = "test-timings.properties";
+
+    /** Вес нового измерения в скользящем среднем. */
+    private static final double SMOOTHING = 0.3;
+
+    private final Map<String, Long> durations = new TreeMap<>();
+
+    /**
+     * Путь к общему хранилищу длительностей.
+     */
+    public static Path storeFile() {
+        return Paths.get(System.getProperty("test.timings.file", DEFAULT_FILE));
+    }
+
+    /**
+     * Идентификатор теста в хранилище: полное имя класса и имя метода.
+     */
+    public static String testId(ITestNGMethod method) {
+        return method.getRealClass().getName() + "#" + method.getMethodName();
+    }
+
+    /**
+     * Загружает хранилище; отсутствующий файл дает пустое хранилище.
+     */
+    public static TestTimings load(Path file) {
+        TestTimings timings = new TestTimings();
+        if (!Files.isRegularFile(file)) {
+            return timings;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать длительности тестов из " + file, e);
+        }
+        properties.stringPropertyNames().forEach(testId -> {
+            try {
+                timings.durations.put(testId, Long.parseLong(properties.getProperty(testId).trim()));
+            } catch (NumberFormatException e) {
+                System.err.println("[SHARD] Пропущена некорректная длительность теста " + testId);
+            }
+        });
+        return timings;
+    }
+
+    /**
+     * Сохраняет хранилище, заменяя файл целиком, чтобы параллельные читатели
+     * не увидели его недописанным.
+     */
+    public synchronized void save(Path file) {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "test-timings", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                writer.write("# Ожидаемая длительность тестов, мс\n");
+                for (Map.Entry<String, Long> entry : durations.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить длительности тестов в " + file, e);
+        }
+    }
+
+    /**
+     * Учитывает новое измерение длительности теста.
+     */
+    public synchronized void record(String testId, long millis) {
+        durations.merge(testId, millis,
+                (previous, current) -> Math.round(previous * (1 - SMOOTHING) + current * SMOOTHING));
+    }
+
+    /**
+     * Переносит значения из другого хранилища, заменяя имеющиеся.
+     */
+    public synchronized void putAll(TestTimings other) {
+        durations.putAll(other.asMap());
+    }
+
+    /**
+     * Копия хранилища только с указанными тестами.
+     */
+    public synchronized TestTimings only(Collection<String> testIds) {
+        TestTimings subset = new TestTimings();
+        testIds.forEach(testId -> {
+            Long millis = durations.get(testId);
+            if (millis != null) {
+                subset.durations.put(testId, millis);
+            }
+        });
+        return subset;
+    }
+
+    public synchronized OptionalLong expected(String testId) {
+        Long millis = durations.get(testId);
+        return millis == null ? OptionalLong.empty() : OptionalLong.of(millis);
+    }
+
+    /**
+     * Медиана известных длительностей — оценка для тестов без истории.
+     *
+     * @param fallback значение для пустого хранилища
+     */
+    public synchronized long median(long fallback) {
+        if (durations.isEmpty()) {
+            return fallback;
+        }
+        return durations.values().stream().sorted().skip(durations.size() / 2).findFirst().orElse(fallback);
+    }
+
+    public synchronized Map<String, Long> asMap() {
+        return new TreeMap<>(durations);
+    }
+}
@@ -0,0 +1,125 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Контекст теста, привязанный к текущему потоку: драйвер и созданный для него Page Object.
+ * Позволяет запускать тесты параллельно без общих полей с драйверами.
+ *
+ * <p>Все экземпляры разделяют общий реестр владельцев драйверов. Попытка привязать
+ * драйвер, уже занятый другим потоком, или обратиться к чужому драйверу
+ * завершается {@link IllegalStateException}.
+ */
+public class ThreadSession<D extends WebDriver, P> {
+
+    private static final Map<WebDriver, Thread> DRIVER_OWNERS = new ConcurrentHashMap<>();
+    private static final Set<String> THREAD_NAMES = ConcurrentHashMap.newKeySet();
+    private static final LongAdder BINDINGS = new LongAdder();
+    private static final AtomicInteger ACTIVE_SESSIONS = new AtomicInteger();
+    private static final AtomicInteger MAX_ACTIVE_SESSIONS = new AtomicInteger();
+
+    private final ThreadLocal<Binding<D, P>> current = new ThreadLocal<>();
+
+    /**
+     * Привязывает драйвер к текущему потоку и создает для него Page Object.
+     */
+    public P bind(D driver, Function<D, P> pageFactory) {
+        if (current.get() != null) {
+            throw new IllegalStateException(
+                    "Поток " + Thread.currentThread().getName() + " уже владеет сессией");
+        }
+        Thread owner = DRIVER_OWNERS.putIfAbsent(driver, Thread.currentThread());
+        if (owner != null) {
+            throw new IllegalStateException(String.format(
+                    "Драйвер уже используется потоком %s, повторная привязка из потока %s",
+                    owner.getName(), Thread.currentThread().getName()));
+        }
+
+        P page = pageFactory.apply(driver);
+        current.set(new Binding<>(driver, page));
+
+        BINDINGS.increment();
+        THREAD_NAMES.add(Thread.currentThread().getName());
+        MAX_ACTIVE_SESSIONS.accumulateAndGet(ACTIVE_SESSIONS.incrementAndGet(), Math::max);
+        return page;
+    }
+
+    /**
+     * Возвращает драйвер текущего потока.
+     */
+    public D driver() {
+        return requireBinding().driver;
+    }
+
+    /**
+     * Возвращает Page Object текущего потока.
+     */
+    public P page() {
+        return requireBinding().page;
+    }
+
+    /**
+     * Проверяет, привязана ли к текущему потоку сессия.
+     */
+    public boolean isBound() {
+        return current.get() != null;
+    }
+
+    /**
+     * Отвязывает сессию от текущего потока.
+     *
+     * @return освобожденный драйвер или {@code null}, если сессии не было
+     */
+    public D unbind() {
+        Binding<D, P> binding = current.get();
+        if (binding == null) {
+            return null;
+        }
+        current.remove();
+        DRIVER_OWNERS.remove(binding.driver, Thread.currentThread());
+        ACTIVE_SESSIONS.decrementAndGet();
+        return binding.driver;
+    }
+
+    /**
+     * Сводка по всем сессиям процесса: сколько было привязок,
+     * из скольких потоков и сколько сессий работало одновременно.
+     */
+    public static String statistics() {
+        return String.format("привязок: %d, потоков: %d, максимум одновременных сессий: %d",
+                BINDINGS.sum(), THREAD_NAMES.size(), MAX_ACTIVE_SESSIONS.get());
+    }
+
+    private Binding<D, P> requireBinding() {
+        Binding<D, P> binding = current.get();
+        if (binding == null) {
+            throw new IllegalStateException(
+                    "К потоку " + Thread.currentThread().getName() + " не привязана сессия");
+        }
+        Thread owner = DRIVER_OWNERS.get(binding.driver);
+        if (owner != Thread.currentThread()) {
+            throw new IllegalStateException(String.format(
+                    "Драйвер потока %s принадлежит потоку %s",
+                    Thread.currentThread().getName(), owner == null ? "<нет>" : owner.getName()));
+        }
+        return binding;
+    }
+
+    private static final class Binding<D, P> {
+
+        private final D driver;
+        private final P page;
+
+        private Binding(D driver, P page) {
+            this.driver = driver;
+            this.page = page;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Единая политика ожиданий: неявное ожидание выключено, все ожидания явные.
+ *
+ * <p>Неявное ожидание складывается с явными и заставляет каждую проверку
+ * отсутствия элемента ждать полный тайм-аут. {@link Guard} следит за командами
+ * драйвера и сообщает, в каком месте кода неявное ожидание включается и какие
+ * поиски элементов выполняются, пока оно включено. При {@code -Dwait.policy.strict=true}
+ * нарушение завершает вызов ошибкой, иначе выводится предупреждение
+ * (один раз на место вызова).
+ */
+public final class WaitPolicy {
+
+    public static final Duration IMPLICIT_WAIT = Duration.ZERO;
+
+    private static final String PROJECT_PACKAGE = "ru.javabruse.";
+    private static final int REPORTED_FRAMES = 6;
+    private static final Set<String> REPORTED_CALL_SITES = ConcurrentHashMap.newKeySet();
+
+    private WaitPolicy() {
+        // Приватный конструктор для утилитного класса
+    }
+
+    /**
+     * Применяет политику к драйверу: выключает неявное ожидание.
+     */
+    public static void apply(WebDriver driver) {
+        driver.manage().timeouts().implicitlyWait(IMPLICIT_WAIT);
+    }
+
+    /**
+     * Сообщает о нарушении политики вместе с местом вызова в коде проекта.
+     *
+     * @throws IllegalStateException в строгом режиме
+     */
+    private static void report(String violation) {
+        String callSite = Arrays.stream(new Throwable().getStackTrace())
+                .filter(frame -> frame.getClassName().startsWith(PROJECT_PACKAGE))
+                .filter(frame -> !frame.getClassName().split("\\$")[0].equals(WaitPolicy.class.getName()))
+                .limit(REPORTED_FRAMES)
+                .map(StackTraceElement::toString)
+                .collect(Collectors.joining(System.lineSeparator() + "    at "));
+        String message = String.format("%s:%n    at %s", violation, callSite);
+
+        if (Boolean.getBoolean("wait.policy.strict")) {
+            throw new IllegalStateException(message);
+        }
+        if (REPORTED_CALL_SITES.add(callSite)) {
+            System.err.println("[WAIT POLICY] " + message);
+        }
+    }
+
+    /**
+     * Декоратор драйвера, проверяющий политику до выполнения каждой команды:
+     * включение неявного ожидания и поиск элементов, пока оно включено.
+     * Проверка выполняется в самом декораторе, а не в слушателе: исключения слушателей
+     * {@link EventFiringDecorator} перехватывает, а в строгом режиме ошибка должна дойти до теста.
+     * Переданные слушатели вызываются как обычно.
+     *
+     * <p>Декоратор рассчитан на драйвер, к которому уже применена политика ({@link #apply}),
+     * и отслеживает неявное ожидание по командам, прошедшим через него.
+     */
+    public static final class Guard extends EventFiringDecorator<WebDriver> {
+
+        private volatile Duration implicitWait = IMPLICIT_WAIT;
+
+        public Guard(WebDriverListener... listeners) {
+            super(listeners);
+        }
+
+        @Override
+        public void beforeCall(Decorated<?> target, Method method, Object[] args) {
+            Object original = target.getOriginal();
+            if (original instanceof WebDriver.Timeouts && "implicitlyWait".equals(method.getName())) {
+                beforeImplicitlyWait(args);
+            } else if (original instanceof SearchContext && method.getName().startsWith("findElement")
+                    && !implicitWait.isZero()) {
+                report(String.format("Поиск %s выполняется с неявным ожиданием %d мс вместо явного ожидания",
+                        args[0] instanceof By ? args[0] : "элемента", implicitWait.toMillis()));
+            }
+            super.beforeCall(target, method, args);
+        }
+
+        private void beforeImplicitlyWait(Object[] args) {
+            Duration requested;
+            if (args.length == 1 && args[0] instanceof Duration) {
+                requested = (Duration) args[0];
+            } else if (args.length == 2 && args[0] instanceof Long && args[1] instanceof TimeUnit) {
+                requested = Duration.ofNanos(((TimeUnit) args[1]).toNanos((Long) args[0]));
+            } else {
+                return;
+            }
+            if (!requested.isZero()) {
+                report(String.format("Включено неявное ожидание %d мс", requested.toMillis()));
+            }
+            implicitWait = requested;
+        }
+    }
+}
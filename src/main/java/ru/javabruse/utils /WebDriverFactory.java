@@ -1,13 +1,25 @@
 package ru.javabruse.utils;
 
 import io.appium.java_client.android.AndroidDriver;
+import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+import org.openqa.selenium.remote.Augmenter;
 import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.support.events.WebDriverListener;
 
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
 
 /**
  * Фабрика для создания и настройки драйверов WebDriver.
@@ -15,45 +27,191 @@ import java.time.Duration;
  */
 public class WebDriverFactory {
     
-    private static final Duration IMPLICIT_WAIT = Duration.ofSeconds(5);
+    private static final int DEFAULT_POOL_SIZE = 2;
+    private static final Duration POOL_LEASE_TIMEOUT = Duration.ofMinutes(2);
     private static final String APPIUM_SERVER_URL = "http://127.0.0.1:4723";
-    private static final String WIKIPEDIA_PACKAGE = "org.wikipedia.alpha";
+    public static final String WIKIPEDIA_PACKAGE = "org.wikipedia.alpha";
     private static final String WIKIPEDIA_ACTIVITY = "org.wikipedia.main.MainActivity";
     
     private static final String PLATFORM_ANDROID = "Android";
     private static final String AUTOMATION_UIAUTOMATOR2 = "UiAutomator2";
     private static final String EMULATOR_NAME = "Android Emulator";
+    private static final String HEADLESS_WINDOW_SIZE = "--window-size=1920,1080";
+    private static final int CONTENT_SETTING_BLOCK = 2;
+    // Имена хостов не разрешаются; сервер фикстур доступен по адресу локального интерфейса
+    private static final String OFFLINE_HOST_RESOLVER_RULES = "MAP * ~NOTFOUND, EXCLUDE localhost";
+
+    private static DriverPool<WebDriver> chromeDriverPool;
 
     private WebDriverFactory() {
         // Приватный конструктор для утилитного класса
     }
 
     /**
-     * Создает и настраивает ChromeDriver для веб-тестирования.
+     * Выдает из пула чистую сессию Chrome, открытую на главной странице Википедии.
+     * После теста сессию нужно вернуть через {@link #releaseChromeDriver(WebDriver)}.
+     */
+    public static WebDriver acquireChromeDriver() {
+        return getChromeDriverPool().lease(POOL_LEASE_TIMEOUT);
+    }
+
+    /**
+     * Возвращает сессию Chrome в пул для повторного использования.
+     */
+    public static void releaseChromeDriver(WebDriver driver) {
+        getChromeDriverPool().release(driver);
+    }
+
+    /**
+     * Закрывает сессию Chrome, которая оказалась в неисправном состоянии.
+     */
+    public static void discardChromeDriver(WebDriver driver) {
+        getChromeDriverPool().invalidate(driver);
+    }
+
+    /**
+     * Закрывает все сессии пула и выводит его метрики.
+     */
+    public static synchronized void shutdownChromeDriverPool() {
+        if (chromeDriverPool != null) {
+            System.out.println("[DRIVER POOL] " + chromeDriverPool.getMetrics());
+            chromeDriverPool.shutdown();
+            chromeDriverPool = null;
+        }
+    }
+
+    /**
+     * Возвращает пул сессий Chrome, создавая и прогревая его при первом обращении.
+     * Размер пула задается системным свойством {@code driver.pool.size}.
+     */
+    public static synchronized DriverPool<WebDriver> getChromeDriverPool() {
+        if (chromeDriverPool == null) {
+            int poolSize = Integer.getInteger("driver.pool.size", DEFAULT_POOL_SIZE);
+            chromeDriverPool = new DriverPool<>(WebDriverFactory::createChromeDriver,
+                    TestEnvironment.wikipediaBaseUrl(), poolSize);
+            chromeDriverPool.warmUp(Integer.getInteger("driver.pool.warmup", poolSize));
+            Runtime.getRuntime().addShutdownHook(
+                    new Thread(WebDriverFactory::shutdownChromeDriverPool));
+        }
+        return chromeDriverPool;
+    }
+
+    /**
+     * Создает и настраивает ChromeDriver для веб-тестирования
+     * с профилем, выбранным свойством {@code browser.profile}.
      */
     public static WebDriver createChromeDriver() {
-        ChromeOptions options = createChromeOptions();
-        WebDriver driver = new ChromeDriver(options);
+        return createChromeDriver(BrowserProfile.current());
+    }
+
+    /**
+     * Создает и настраивает ChromeDriver с указанным профилем браузера.
+     * Если задано свойство {@code grid.url}, сессия создается на Selenium Grid.
+     */
+    public static WebDriver createChromeDriver(BrowserProfile profile) {
+        ChromeOptions options = createChromeOptions(profile);
+        String gridUrl = System.getProperty("grid.url", "").trim();
+        WebDriver driver;
+        if (gridUrl.isEmpty()) {
+            ChromeBinary.ensureResolved();
+            driver = new ChromeDriver(options);
+        } else {
+            driver = createRemoteDriver(gridUrl, options);
+        }
+        blockUrls(driver, profile.getBlockedUrlPatterns());
         configureTimeouts(driver);
-        return driver;
+        return instrument(driver);
     }
 
     /**
      * Создает и настраивает AndroidDriver для тестирования мобильного приложения.
+     * Данные приложения при создании сессии не очищаются: состояние между тестами
+     * сбрасывает {@link AndroidAppSession}. Адрес сервера Appium задается свойством
+     * {@code appium.url}.
      */
     public static AndroidDriver createAndroidDriver() throws Exception {
+        AndroidDriver driver = new AndroidDriver(new URL(appiumServerUrl()), createAndroidCapabilities());
+        configureTimeouts(driver);
+        return driver;
+    }
+
+    /**
+     * Создает AndroidDriver на устройстве из {@link AndroidDevicePool} с выделенными ему портами.
+     */
+    public static AndroidDriver createAndroidDriver(AndroidDevice device) throws Exception {
         DesiredCapabilities capabilities = createAndroidCapabilities();
-        return new AndroidDriver(new URL(APPIUM_SERVER_URL), capabilities);
+        if (device.getUdid() != null) {
+            capabilities.setCapability("deviceName", device.getUdid());
+            capabilities.setCapability("udid", device.getUdid());
+        }
+        capabilities.setCapability("systemPort", device.getSystemPort());
+        capabilities.setCapability("chromedriverPort", device.getChromedriverPort());
+        capabilities.setCapability("mjpegServerPort", device.getMjpegServerPort());
+        AndroidDriver driver = new AndroidDriver(new URL(device.getAppiumUrl()), capabilities);
+        configureTimeouts(driver);
+        return driver;
+    }
+
+    /**
+     * Адрес сервера Appium: свойство {@code appium.url} или локальный сервер по умолчанию.
+     */
+    public static String appiumServerUrl() {
+        return System.getProperty("appium.url", APPIUM_SERVER_URL);
     }
 
-    private static ChromeOptions createChromeOptions() {
+    private static RemoteWebDriver createRemoteDriver(String gridUrl, ChromeOptions options) {
+        try {
+            return new RemoteWebDriver(new URL(gridUrl), options);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Некорректный адрес Selenium Grid: " + gridUrl, e);
+        }
+    }
+
+    private static ChromeOptions createChromeOptions(BrowserProfile profile) {
         ChromeOptions options = new ChromeOptions();
-        options.addArguments("--start-maximized");
+        if (profile.isHeadless()) {
+            options.addArguments("--headless=new");
+            options.addArguments(HEADLESS_WINDOW_SIZE);
+        } else {
+            options.addArguments("--start-maximized");
+        }
         options.addArguments("--disable-notifications");
         options.addArguments("--remote-allow-origins=*");
+        options.setPageLoadStrategy(profile.getPageLoadStrategy());
+        // Журнал консоли нужен для материалов упавших тестов
+        LoggingPreferences logging = new LoggingPreferences();
+        logging.enable(LogType.BROWSER, Level.ALL);
+        options.setCapability(ChromeOptions.LOGGING_PREFS, logging);
+        if (profile.isBlockingImages()) {
+            options.setExperimentalOption("prefs", Collections.singletonMap(
+                    "profile.managed_default_content_settings.images", CONTENT_SETTING_BLOCK));
+        }
+        if (TestEnvironment.isFixtureReplay()) {
+            // Записаны только ответы Википедии: запросы к другим хостам (upload.wikimedia.org,
+            // счетчики) при воспроизведении не должны уходить в сеть
+            options.addArguments("--host-resolver-rules=" + OFFLINE_HOST_RESOLVER_RULES);
+        }
         return options;
     }
 
+    /**
+     * Блокирует запросы по шаблонам адресов через DevTools,
+     * чтобы страница не загружала ресурсы, которые тесты не проверяют.
+     * Для удаленной сессии DevTools доступны через {@link Augmenter}, если их пропускает Grid.
+     */
+    private static void blockUrls(WebDriver driver, List<String> urlPatterns) {
+        if (urlPatterns.isEmpty()) {
+            return;
+        }
+        WebDriver cdpDriver = driver instanceof HasCdp ? driver : new Augmenter().augment(driver);
+        if (!(cdpDriver instanceof HasCdp)) {
+            System.err.println("[DRIVER] DevTools недоступны, блокировка адресов пропущена");
+            return;
+        }
+        ((HasCdp) cdpDriver).executeCdpCommand("Network.enable", Collections.emptyMap());
+        ((HasCdp) cdpDriver).executeCdpCommand("Network.setBlockedURLs", Map.of("urls", urlPatterns));
+    }
+
     private static DesiredCapabilities createAndroidCapabilities() {
         DesiredCapabilities capabilities = new DesiredCapabilities();
         
@@ -62,12 +220,41 @@ public class WebDriverFactory {
         capabilities.setCapability("automationName", AUTOMATION_UIAUTOMATOR2);
         capabilities.setCapability("appPackage", WIKIPEDIA_PACKAGE);
         capabilities.setCapability("appActivity", WIKIPEDIA_ACTIVITY);
-        capabilities.setCapability("noReset", false);
+        capabilities.setCapability("noReset", true);
         
         return capabilities;
     }
 
+    /**
+     * Оборачивает драйвер проверкой {@link WaitPolicy} и, если измерения включены,
+     * слушателем, который измеряет задержку каждой команды. Возвращенный драйвер
+     * реализует те же интерфейсы, но не является экземпляром исходного класса.
+     */
+    private static WebDriver instrument(WebDriver driver) {
+        WebDriverListener[] listeners = LatencyRecorder.isEnabled()
+                ? new WebDriverListener[] {new CommandLatencyListener()}
+                : new WebDriverListener[0];
+        return new WaitPolicy.Guard(listeners).decorate(driver);
+    }
+
     private static void configureTimeouts(WebDriver driver) {
-        driver.manage().timeouts().implicitlyWait(IMPLICIT_WAIT);
+        WaitPolicy.apply(driver);
+    }
+
+    /**
+     * Разрешает бинарный файл chromedriver один раз за время жизни JVM.
+     */
+    private static final class ChromeBinary {
+
+        static {
+            WebDriverManager.chromedriver().setup();
+        }
+
+        private ChromeBinary() {
+        }
+
+        static void ensureResolved() {
+            // Загрузка класса выполняет разрешение драйвера
+        }
     }
 }
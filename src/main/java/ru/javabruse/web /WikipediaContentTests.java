@@ -0,0 +1,84 @@
+package ru.javabruse.web;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.ITestResult;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ru.javabruse.pages.WikipediaApiPage;
+import ru.javabruse.pages.WikipediaPage;
+import ru.javabruse.pages.WikipediaSearch;
+import ru.javabruse.utils.FailureArtifacts;
+import ru.javabruse.utils.HealthGate;
+import ru.javabruse.utils.PagePerformanceListener;
+import ru.javabruse.utils.TestEnvironment;
+import ru.javabruse.utils.ThreadSession;
+import ru.javabruse.utils.WebDriverFactory;
+
+/**
+ * Проверки содержимого Википедии, которым не нужен интерфейс.
+ * При {@code -Dtest.mode=api} выполняются через {@link WikipediaApiPage} без браузера,
+ * иначе — через {@link WikipediaPage} в сессии Chrome из пула.
+ */
+@Listeners(PagePerformanceListener.class)
+public class WikipediaContentTests {
+
+    private static final String RUSSIA_SEARCH_QUERY = "Россия";
+    private static final String RUSSIA_ARTICLE_TITLE = "Россия";
+
+    private static final ThreadLocal<WikipediaSearch> SEARCH = new ThreadLocal<>();
+    private static final ThreadSession<WebDriver, WikipediaPage> BROWSER_SESSION = new ThreadSession<>();
+
+    @BeforeMethod
+    public void setUp() {
+        HealthGate.require(HealthGate.Dependency.WIKIPEDIA);
+        if (TestEnvironment.isApiMode()) {
+            SEARCH.set(new WikipediaApiPage());
+        } else {
+            SEARCH.set(BROWSER_SESSION.bind(WebDriverFactory.acquireChromeDriver(), WikipediaPage::new));
+        }
+    }
+
+    private WikipediaSearch wikipedia() {
+        return SEARCH.get();
+    }
+
+    @Test
+    public void shouldFindArticleWhenSearchingForRussia() {
+        wikipedia().search(RUSSIA_SEARCH_QUERY);
+
+        String actualTitle = wikipedia().getArticleTitle();
+
+        Assert.assertEquals(actualTitle, RUSSIA_ARTICLE_TITLE,
+                          String.format("Заголовок статьи должен быть '%s'. Фактический: %s",
+                                       RUSSIA_ARTICLE_TITLE, actualTitle));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown(ITestResult result) {
+        HealthGate.recordResult(result, HealthGate.Dependency.WIKIPEDIA);
+        SEARCH.remove();
+        WebDriver driver = BROWSER_SESSION.unbind();
+        if (driver == null) {
+            return;
+        }
+        FailureArtifacts.Capture artifacts = null;
+        try {
+            artifacts = result.isSuccess() ? null : FailureArtifacts.grab(driver, result.getMethod().getMethodName());
+        } finally {
+            // Сессия возвращается в пул, даже если снять материалы не удалось
+            WebDriverFactory.releaseChromeDriver(driver);
+        }
+        if (artifacts != null) {
+            FailureArtifacts.save(artifacts);
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void flushFailureArtifacts() {
+        FailureArtifacts.flush();
+    }
+}
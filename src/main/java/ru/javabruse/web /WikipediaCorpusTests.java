@@ -0,0 +1,86 @@
+package ru.javabruse.web;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import ru.javabruse.pages.WikipediaApiPage;
+import ru.javabruse.pages.WikipediaPage;
+import ru.javabruse.pages.WikipediaSearch;
+import ru.javabruse.utils.CorpusResultLog;
+import ru.javabruse.utils.CorpusRunner;
+import ru.javabruse.utils.HealthGate;
+import ru.javabruse.utils.SearchCorpus;
+import ru.javabruse.utils.TestEnvironment;
+import ru.javabruse.utils.ThreadSession;
+import ru.javabruse.utils.WebDriverFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Проверка поиска на корпусах запросов из файлов CSV или JSON Lines.
+ *
+ * <p>Корпуса задаются свойством {@code corpus.files} (через запятую), каждый корпус —
+ * отдельный вызов теста. Строки читаются потоково и выполняются {@link CorpusRunner}
+ * в {@code corpus.threads} сессиях: с {@code -Dtest.mode=api} через {@link WikipediaApiPage},
+ * иначе в сессиях Chrome из пула. Результаты пишутся в {@code corpus.results.dir};
+ * повторный запуск продолжает прерванный прогон, {@code corpus.resume=false} начинает заново.
+ */
+public class WikipediaCorpusTests {
+
+    private static final String DEFAULT_CORPUS = "corpus/search-queries.csv";
+    private static final int DEFAULT_PROGRESS_INTERVAL = 100;
+
+    private static final ThreadSession<WebDriver, WikipediaPage> BROWSER_SESSION = new ThreadSession<>();
+
+    @DataProvider(name = "corpora")
+    public Iterator<Object[]> corpora() {
+        return Arrays.stream(System.getProperty("corpus.files", DEFAULT_CORPUS).split(","))
+                .map(String::trim)
+                .filter(file -> !file.isEmpty())
+                .map(file -> new Object[] {file})
+                .iterator();
+    }
+
+    @Test(dataProvider = "corpora")
+    public void shouldFindExpectedArticleForEveryCorpusQuery(String corpusFile) throws Exception {
+        HealthGate.require(HealthGate.Dependency.WIKIPEDIA);
+        CorpusRunner runner = new CorpusRunner(
+                Integer.getInteger("corpus.threads", Integer.getInteger("driver.pool.size", 2)),
+                this::openSearch, this::closeSearch,
+                Integer.getInteger("corpus.progress", DEFAULT_PROGRESS_INTERVAL));
+
+        CorpusRunner.Summary summary;
+        try (SearchCorpus corpus = SearchCorpus.open(Paths.get(corpusFile));
+             CorpusResultLog log = CorpusResultLog.open(resultsFile(corpus),
+                     Boolean.parseBoolean(System.getProperty("corpus.resume", "true")))) {
+            summary = runner.run(corpus, log);
+        }
+        System.out.println("[CORPUS] " + summary);
+
+        Assert.assertEquals(summary.getProblemCount(), 0,
+                          "Расхождения и ошибки в корпусе " + corpusFile + ": " + summary.getMismatchSamples());
+    }
+
+    private WikipediaSearch openSearch() {
+        if (TestEnvironment.isApiMode()) {
+            return new WikipediaApiPage();
+        }
+        return BROWSER_SESSION.bind(WebDriverFactory.acquireChromeDriver(), WikipediaPage::new);
+    }
+
+    private void closeSearch(WikipediaSearch search) {
+        WebDriver driver = BROWSER_SESSION.unbind();
+        if (driver != null) {
+            WebDriverFactory.releaseChromeDriver(driver);
+        }
+    }
+
+    private static Path resultsFile(SearchCorpus corpus) {
+        return Paths.get(System.getProperty("corpus.results.dir", "target/corpus"))
+                .resolve(corpus.getName() + ".results.jsonl");
+    }
+}
@@ -1,70 +1,81 @@
 package ru.javabruse.web;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.testng.Assert;
+import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
+import ru.javabruse.pages.SearchResult;
 import ru.javabruse.pages.WikipediaPage;
+import ru.javabruse.utils.FailureArtifacts;
+import ru.javabruse.utils.HealthGate;
+import ru.javabruse.utils.PagePerformanceListener;
+import ru.javabruse.utils.PageLoadStats;
+import ru.javabruse.utils.ThreadSession;
 import ru.javabruse.utils.WebDriverFactory;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Тесты для веб-версии Википедии.
  * Проверяют основные функции главной страницы и поиска.
+ * Проверки только содержимого находятся в {@link WikipediaContentTests}.
  */
+@Listeners(PagePerformanceListener.class)
 public class WikipediaTests {
 
-    private static final String WIKIPEDIA_BASE_URL = "https://ru.wikipedia.org/";
-    private static final String RUSSIA_SEARCH_QUERY = "Россия";
-    private static final String RUSSIA_ARTICLE_TITLE = "Россия";
+    private static final List<String> BATCH_SEARCH_QUERIES = Arrays.asList("Россия", "Москва", "Санкт-Петербург");
 
-    private WebDriver driver;
-    private WikipediaPage wikipediaPage;
+    private static final ThreadSession<WebDriver, WikipediaPage> SESSION = new ThreadSession<>();
 
     @BeforeMethod
     public void setUp() {
-        initializeWebDriver();
-        openWikipediaHomePage();
-        wikipediaPage = new WikipediaPage(driver);
+        HealthGate.require(HealthGate.Dependency.WIKIPEDIA);
+        // Сессия из пула уже очищена и открыта на главной странице Википедии
+        WebDriver driver = WebDriverFactory.acquireChromeDriver();
+        SESSION.bind(driver, WikipediaPage::new);
     }
 
-    private void initializeWebDriver() {
-        WebDriverManager.chromedriver().setup();
-        driver = WebDriverFactory.createChromeDriver();
-        driver.manage().window().maximize();
+    private WebDriver driver() {
+        return SESSION.driver();
     }
 
-    private void openWikipediaHomePage() {
-        driver.get(WIKIPEDIA_BASE_URL);
+    private WikipediaPage wikipediaPage() {
+        return SESSION.page();
     }
 
     @Test
     public void mainPageShouldLoadSuccessfully() {
-        boolean isMainPageLoaded = wikipediaPage.isMainPageDisplayed();
+        boolean isMainPageLoaded = wikipediaPage().isLoaded();
         
         Assert.assertTrue(isMainPageLoaded, 
                          "Главная страница Википедии должна загружаться корректно");
     }
 
     @Test
-    public void shouldFindArticleWhenSearchingForRussia() {
-        wikipediaPage.search(RUSSIA_SEARCH_QUERY);
-        
-        String actualTitle = wikipediaPage.getArticleTitle();
-        
-        Assert.assertEquals(actualTitle, RUSSIA_ARTICLE_TITLE,
-                          String.format("Заголовок статьи должен быть '%s'. Фактический: %s", 
-                                       RUSSIA_ARTICLE_TITLE, actualTitle));
+    public void shouldFindEveryArticleInBatchSearch() {
+        List<SearchResult> results = wikipediaPage().searchAll(BATCH_SEARCH_QUERIES);
+
+        Assert.assertEquals(results.size(), BATCH_SEARCH_QUERIES.size(),
+                          "Для каждого запроса должен быть результат");
+        for (SearchResult result : results) {
+            Assert.assertTrue(result.isSuccessful(), "Запрос завершился ошибкой: " + result);
+            Assert.assertEquals(result.getTitle(), result.getQuery(),
+                              "Заголовок статьи должен совпадать с запросом: " + result);
+        }
     }
 
     @Test
     public void shouldNavigateToDifferentPageWhenClickingRandomLink() {
-        wikipediaPage.isMainPageDisplayed();
-        String initialUrl = driver.getCurrentUrl();
+        wikipediaPage().isLoaded();
+        String initialUrl = driver().getCurrentUrl();
 
-        wikipediaPage.openRandomPage();
-        String newUrl = driver.getCurrentUrl();
+        wikipediaPage().openRandomArticle();
+        String newUrl = driver().getCurrentUrl();
 
         Assert.assertNotEquals(newUrl, initialUrl,
                              "URL должен измениться после открытия случайной статьи");
@@ -72,18 +83,39 @@ public class WikipediaTests {
 
     @Test
     public void searchFieldShouldBeAvailableOnMainPage() {
-        wikipediaPage.isMainPageDisplayed();
+        wikipediaPage().isLoaded();
         
-        boolean isSearchFieldFunctional = wikipediaPage.isSearchFieldAvailable();
+        boolean isSearchFieldFunctional = wikipediaPage().isSearchAvailable();
         
         Assert.assertTrue(isSearchFieldFunctional,
                          "Поле поиска должно быть доступно для использования");
     }
 
-    @AfterMethod
-    public void tearDown() {
-        if (driver != null) {
-            driver.quit();
+    @AfterMethod(alwaysRun = true)
+    public void tearDown(ITestResult result) {
+        HealthGate.recordResult(result, HealthGate.Dependency.WIKIPEDIA);
+        WebDriver driver = SESSION.unbind();
+        if (driver == null) {
+            return;
         }
+        String testName = result.getMethod().getMethodName();
+        FailureArtifacts.Capture artifacts = null;
+        try {
+            PageLoadStats.capture(driver, testName);
+            artifacts = result.isSuccess() ? null : FailureArtifacts.grab(driver, testName);
+        } finally {
+            // Сессия возвращается в пул, даже если сбор статистики или материалов не удался
+            WebDriverFactory.releaseChromeDriver(driver);
+        }
+        if (artifacts != null) {
+            FailureArtifacts.save(artifacts);
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void shutDownDriverPool() {
+        System.out.println("[SESSIONS] " + ThreadSession.statistics());
+        WebDriverFactory.shutdownChromeDriverPool();
+        FailureArtifacts.flush();
     }
 }
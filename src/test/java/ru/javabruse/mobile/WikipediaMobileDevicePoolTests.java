@@ -0,0 +1,73 @@
+package ru.javabruse.mobile;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import ru.javabruse.utils.StubAppiumServer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка {@link WikipediaMobileTests} на двух устройствах {@link StubAppiumServer} в двух потоках.
+ *
+ * <p>Пул устройств и {@code HealthGate} настраиваются один раз при загрузке классов, поэтому
+ * мобильные тесты запускаются в отдельной JVM со своими {@code android.devices} и {@code appium.url},
+ * а имитация Appium работает в этой JVM и сообщает, какие сессии к ней открывались.
+ */
+public class WikipediaMobileDevicePoolTests {
+
+    private static final List<String> UDIDS = List.of("emulator-5554", "emulator-5556");
+    private static final Duration COMMAND_LATENCY = Duration.ofMillis(10);
+    private static final Duration RUN_TIMEOUT = Duration.ofMinutes(2);
+
+    @Test(timeOut = 150_000)
+    public void shouldRunMobileTestsOnTwoDevicesInParallel() throws Exception {
+        try (StubAppiumServer appium = new StubAppiumServer(COMMAND_LATENCY)) {
+            String devices = String.join(",", UDIDS.stream().map(udid -> udid + "@" + appium.getUrl())
+                    .toArray(String[]::new));
+            Path outputDir = Paths.get("target", "device-pool-check");
+            Path log = Files.createDirectories(outputDir).resolve("testng.log");
+
+            Process process = new ProcessBuilder(
+                    Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    "-Dandroid.devices=" + devices,
+                    "-Dappium.url=" + appium.getUrl(),
+                    // adb на машине сборки не нужен: устройства заданы явно
+                    "-Dhealth.adb=" + outputDir.resolve("adb-not-installed"),
+                    "-Dhealth.timeout=1",
+                    "-Dartifacts.dir=" + outputDir.resolve("failure-artifacts"),
+                    "-Dinstrumentation.report=" + outputDir.resolve("latency-report.json"),
+                    "org.testng.TestNG",
+                    "-d", outputDir.resolve("testng").toString(),
+                    "-parallel", "methods",
+                    "-threadcount", String.valueOf(UDIDS.size()),
+                    "-testclass", WikipediaMobileTests.class.getName())
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+            if (!process.waitFor(RUN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                Assert.fail("Мобильные тесты не завершились за " + RUN_TIMEOUT.toSeconds() + " с, журнал: " + log);
+            }
+            String output = new String(Files.readAllBytes(log), StandardCharsets.UTF_8);
+            System.out.println("[DEVICE POOL] Журнал прогона: " + log.toAbsolutePath());
+
+            // TestNG завершается с ненулевым кодом, если тест упал или пропущен
+            Assert.assertEquals(process.exitValue(), 0, "Все мобильные тесты должны пройти:\n" + output);
+            Assert.assertEquals(appium.getDeviceUdids(), Set.copyOf(UDIDS),
+                    "Сессии должны открываться на обоих устройствах пула");
+            Assert.assertEquals(appium.getMaxConcurrentSessions(), UDIDS.size(),
+                    "Сессии обоих устройств должны быть открыты одновременно");
+            // Открытые сессии еще не значат параллельный прогон: команды обеих должны выполняться в одно время
+            Assert.assertEquals(appium.getMaxBusySessions(), UDIDS.size(),
+                    "Команды сессий обоих устройств должны выполняться одновременно");
+        }
+    }
+}
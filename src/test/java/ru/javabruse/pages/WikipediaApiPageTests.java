@@ -0,0 +1,111 @@
+package ru.javabruse.pages;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import ru.javabruse.utils.ConditionWait;
+import ru.javabruse.utils.StubWikipediaServer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Проверки пакетного поиска {@link WikipediaApiPage#searchAllAsync} против {@link StubWikipediaServer}.
+ */
+public class WikipediaApiPageTests {
+
+    private static final int QUERY_COUNT = 40;
+    private static final int MAX_CONCURRENT_REQUESTS = 8;
+
+    private GatedStubServer server;
+
+    @BeforeClass
+    public void startServer() {
+        server = new GatedStubServer();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test(timeOut = 30_000)
+    public void shouldNotBlockCallerAndLimitConcurrentRequests() throws Exception {
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries.add("Статья " + i);
+        }
+        server.gate = new CountDownLatch(1);
+
+        // Сервер не отвечает, пока открыт шлюз: блокирующая реализация не вернулась бы из вызова
+        CompletableFuture<List<SearchResult>> future = new WikipediaApiPage(server.getBaseUrl()).searchAllAsync(queries);
+        ConditionWait.until("запросы к API в работе", Duration.ofSeconds(10),
+                () -> server.inFlight.get() == MAX_CONCURRENT_REQUESTS);
+        Assert.assertFalse(future.isDone(), "Пакет не должен завершиться, пока сервер не ответил");
+
+        server.gate.countDown();
+        List<SearchResult> results = future.get(20, TimeUnit.SECONDS);
+
+        Assert.assertEquals(results.size(), QUERY_COUNT, "Для каждого запроса должен быть результат");
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            Assert.assertTrue(results.get(i).isSuccessful(), "Запрос завершился ошибкой: " + results.get(i));
+            Assert.assertEquals(results.get(i).getTitle(), queries.get(i), "Результаты должны идти в порядке запросов");
+        }
+        Assert.assertEquals(server.maxInFlight.get(), MAX_CONCURRENT_REQUESTS,
+                "Одновременно должно выполняться не больше " + MAX_CONCURRENT_REQUESTS + " запросов");
+    }
+
+    @Test(timeOut = 30_000)
+    public void shouldReportRequestThatCannotBeBuiltAsFailedResult() throws Exception {
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < MAX_CONCURRENT_REQUESTS * 3; i++) {
+            queries.add("Статья " + i);
+        }
+
+        List<SearchResult> results = new WikipediaApiPage("http://[некорректный адрес/")
+                .searchAllAsync(queries).get(20, TimeUnit.SECONDS);
+
+        Assert.assertEquals(results.size(), queries.size(), "Для каждого запроса должен быть результат");
+        for (SearchResult result : results) {
+            Assert.assertFalse(result.isSuccessful(), "Запрос к некорректному адресу должен завершиться ошибкой");
+            Assert.assertTrue(result.getError().contains("IllegalArgumentException"), result.toString());
+        }
+    }
+
+    /**
+     * Имитация Википедии, которая задерживает ответы API до открытия шлюза
+     * и считает одновременно обрабатываемые запросы.
+     */
+    private static final class GatedStubServer extends StubWikipediaServer {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        protected void handle(HttpExchange exchange) throws IOException {
+            if (!"/w/api.php".equals(exchange.getRequestURI().getPath())) {
+                super.handle(exchange);
+                return;
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                gate.await(20, TimeUnit.SECONDS);
+                super.handle(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.close();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
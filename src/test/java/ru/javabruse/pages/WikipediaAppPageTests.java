@@ -0,0 +1,77 @@
+package ru.javabruse.pages;
+
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import ru.javabruse.utils.StubAppiumServer;
+import ru.javabruse.utils.TestEnvironment;
+import ru.javabruse.utils.WebDriverFactory;
+
+import java.net.URL;
+import java.time.Duration;
+
+/**
+ * Проверки {@link WikipediaAppPage} против {@link StubAppiumServer} без эмулятора.
+ */
+public class WikipediaAppPageTests {
+
+    private static final Duration COMMAND_LATENCY = Duration.ofMillis(20);
+    private static final String ARTICLE = "Selenium";
+
+    private StubAppiumServer appium;
+    private AndroidDriver driver;
+    private WikipediaAppPage wikipediaApp;
+
+    @BeforeMethod
+    public void startSession() throws Exception {
+        appium = new StubAppiumServer(COMMAND_LATENCY);
+        driver = new AndroidDriver(new URL(appium.getUrl()),
+                new UiAutomator2Options().setAppPackage(WebDriverFactory.WIKIPEDIA_PACKAGE));
+        wikipediaApp = new WikipediaAppPage(driver);
+        wikipediaApp.skipOnboarding();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stopSession() {
+        if (driver != null) {
+            driver.quit();
+        }
+        appium.close();
+    }
+
+    @Test
+    public void deepLinkShouldOpenArticleInFewerCommandsThanSearch() {
+        int searchCommands = commandsFor(() -> wikipediaApp.searchArticle(ARTICLE));
+        wikipediaApp.navigateBack();
+        int deepLinkCommands = commandsFor(() -> wikipediaApp.openArticle(ARTICLE));
+
+        System.out.printf("[TEST LOG] Команд Appium до заголовка статьи: поиск %d, ссылка %d (задержка команды %d мс)%n",
+                searchCommands, deepLinkCommands, COMMAND_LATENCY.toMillis());
+        Assert.assertTrue(deepLinkCommands < searchCommands, String.format(
+                "Открытие по ссылке должно требовать меньше команд, чем поиск: %d против %d",
+                deepLinkCommands, searchCommands));
+    }
+
+    @Test
+    public void deepLinkShouldPointToTestedWikipedia() {
+        wikipediaApp.openArticle(ARTICLE);
+
+        Assert.assertEquals(appium.getLastDeepLink(), TestEnvironment.upstreamWikipediaBaseUrl() + "wiki/" + ARTICLE,
+                "По умолчанию ссылка должна вести на статью тестируемой Википедии");
+    }
+
+    /**
+     * Выполняет сценарий открытия статьи и чтения заголовка.
+     *
+     * @return количество команд, полученных сервером Appium
+     */
+    private int commandsFor(Runnable openArticle) {
+        int before = appium.getCommandCount();
+        openArticle.run();
+        Assert.assertEquals(wikipediaApp.getArticleTitle(), ARTICLE, "Должна открыться запрошенная статья");
+        return appium.getCommandCount() - before;
+    }
+}
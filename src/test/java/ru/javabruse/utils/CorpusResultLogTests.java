@@ -0,0 +1,141 @@
+package ru.javabruse.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Проверки продолжения прогона корпуса по {@link CorpusResultLog}: выполненные строки,
+ * измененные запросы, оборванная последняя запись и завершенный журнал.
+ */
+public class CorpusResultLogTests {
+
+    private Path directory;
+    private Path logFile;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("corpus");
+        logFile = directory.resolve("queries.results.jsonl");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void shouldResumeFromRowsWithoutEnvironmentErrors() throws IOException {
+        List<SearchCorpus.Row> rows = rows("Россия,Россия", "Москва,Москва", "Казань,Казань");
+        try (CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            log.append(rows.get(0), CorpusResultLog.Status.PASSED, "Россия", null, 10);
+            log.append(rows.get(1), CorpusResultLog.Status.FAILED, "Москва (значения)", null, 10);
+            log.append(rows.get(2), CorpusResultLog.Status.ERROR, null, "TimeoutException", 10);
+        }
+
+        try (CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            Assert.assertEquals(completed(log, rows), List.of(true, true, false),
+                    "Повторно выполняются только строки с ошибками окружения");
+            Assert.assertEquals(log.getPreviouslyFailed(), 1, "Расхождение из прошлого прогона должно учитываться");
+            Assert.assertTrue(log.isCompleted(rows.get(1)), "Повторная проверка строки не должна менять результат");
+            Assert.assertEquals(log.getPreviouslyFailed(), 1, "Расхождение не должно учитываться дважды");
+        }
+    }
+
+    @Test
+    public void shouldRerunRowsWhoseQueryChanged() throws IOException {
+        List<SearchCorpus.Row> original = rows("Россия,Россия", "Москва,Москва");
+        try (CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            log.append(original.get(0), CorpusResultLog.Status.PASSED, "Россия", null, 10);
+            log.append(original.get(1), CorpusResultLog.Status.FAILED, "Москва (значения)", null, 10);
+        }
+        // Вторая строка корпуса заменена, первая сохранила запрос, но изменила ожидаемый заголовок
+        List<SearchCorpus.Row> edited = rows("Россия,Российская Федерация", "Санкт-Петербург,Санкт-Петербург");
+
+        try (CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            Assert.assertEquals(completed(log, edited), List.of(false, false),
+                    "Записи об измененных строках корпуса не должны засчитываться");
+            Assert.assertEquals(log.getPreviouslyFailed(), 0,
+                    "Расхождение по прежнему запросу не должно учитываться");
+        }
+    }
+
+    @Test
+    public void shouldSkipTruncatedRecordAndKeepNextRecordsReadable() throws IOException {
+        List<SearchCorpus.Row> rows = rows("Россия,Россия", "Москва,Москва");
+        try (CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            log.append(rows.get(0), CorpusResultLog.Status.PASSED, "Россия", null, 10);
+            log.append(rows.get(1), CorpusResultLog.Status.PASSED, "Москва", null, 10);
+        }
+        // Прогон прерван во время записи второй строки
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 15);
+        }
+
+        try (CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            Assert.assertEquals(completed(log, rows), List.of(true, false), "Оборванная запись не засчитывается");
+            log.append(rows.get(1), CorpusResultLog.Status.PASSED, "Москва", null, 10);
+        }
+
+        try (CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            Assert.assertEquals(completed(log, rows), List.of(true, true),
+                    "Запись после оборванной должна начинаться с новой строки журнала");
+        }
+        Assert.assertEquals(Files.readAllLines(logFile, StandardCharsets.UTF_8).size(), 3,
+                "В журнале остаются две полные записи и оборванная");
+    }
+
+    @Test
+    public void shouldStartOverAfterCompletedRun() throws IOException {
+        List<SearchCorpus.Row> rows = rows("Россия,Россия", "Москва,Москва");
+        try (CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            log.append(rows.get(0), CorpusResultLog.Status.PASSED, "Россия", null, 10);
+            log.append(rows.get(1), CorpusResultLog.Status.FAILED, "Москва (значения)", null, 10);
+            log.markComplete();
+        }
+
+        try (CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            Assert.assertEquals(completed(log, rows), List.of(false, false),
+                    "После завершенного прогона корпус выполняется заново");
+            Assert.assertEquals(log.getPreviouslyFailed(), 0, "Расхождения завершенного прогона не переносятся");
+        }
+        Assert.assertEquals(Files.size(logFile), 0L, "Новый прогон начинается с пустого журнала");
+        Assert.assertEquals(Files.readAllLines(directory.resolve("queries.results.jsonl.previous")).size(), 3,
+                "Завершенный журнал сохраняется рядом");
+    }
+
+    private static List<Boolean> completed(CorpusResultLog log, List<SearchCorpus.Row> rows) {
+        return rows.stream().map(log::isCompleted).collect(Collectors.toList());
+    }
+
+    /**
+     * Строки корпуса CSV с указанным содержимым; номера строк начинаются с 1.
+     */
+    private List<SearchCorpus.Row> rows(String... lines) throws IOException {
+        Path corpusFile = directory.resolve("queries.csv");
+        Files.write(corpusFile, Arrays.asList(lines), StandardCharsets.UTF_8);
+        List<SearchCorpus.Row> rows = new ArrayList<>();
+        try (SearchCorpus corpus = SearchCorpus.open(corpusFile)) {
+            corpus.forEachRemaining(rows::add);
+        }
+        return rows;
+    }
+}
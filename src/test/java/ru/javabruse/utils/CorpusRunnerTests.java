@@ -0,0 +1,196 @@
+package ru.javabruse.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import ru.javabruse.pages.WikipediaSearch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Проверки {@link CorpusRunner} на поиске-заглушке: очередь строк с ограниченным размером,
+ * продолжение прерванного прогона и завершение, если все рабочие потоки упали.
+ */
+public class CorpusRunnerTests {
+
+    private static final int THREADS = 2;
+
+    private Path directory;
+    private Path logFile;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("corpus");
+        logFile = directory.resolve("queries.results.jsonl");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test(timeOut = 30_000)
+    public void shouldRunOnlyRowsMissingFromInterruptedRun() throws Exception {
+        writeCorpus(List.of("Россия,Россия", "Москва,Москва", "Казань,Казань", "Омск,Омск"));
+        try (SearchCorpus corpus = SearchCorpus.open(directory.resolve("queries.csv"));
+             CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            SearchCorpus.Row first = corpus.next();
+            log.append(first, CorpusResultLog.Status.PASSED, "Россия", null, 10);
+        }
+        FakeSearch search = new FakeSearch();
+
+        CorpusRunner.Summary summary = run(search, new AtomicInteger());
+
+        Assert.assertEquals(search.queries.stream().sorted().collect(Collectors.toList()),
+                List.of("Казань", "Москва", "Омск"), "Выполненная строка не должна запускаться повторно");
+        Assert.assertEquals(summary.getProblemCount(), 1, "Расхождение по строке «Омск»: " + summary);
+        Assert.assertTrue(summary.getMismatchSamples().get(0).contains("Омск"), summary.getMismatchSamples().toString());
+        Assert.assertEquals(search.released.get(), search.acquired.get(), "Каждая сессия возвращается после прогона");
+    }
+
+    @Test(timeOut = 30_000)
+    public void shouldStopReadingCorpusWhileAllSessionsAreBusy() throws Exception {
+        writeCorpus(IntStream.range(0, 100).mapToObj(i -> "Статья " + i + ",Статья " + i)
+                .collect(Collectors.toList()));
+        FakeSearch search = new FakeSearch();
+        search.gate = new CountDownLatch(1);
+        AtomicInteger read = new AtomicInteger();
+
+        CompletableFuture<CorpusRunner.Summary> run = CompletableFuture.supplyAsync(() -> {
+            try {
+                return run(search, read);
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // Строки в работе, очередь на две строки на поток и строка, ожидающая места в очереди
+        int bound = THREADS + THREADS * 2 + 1;
+        ConditionWait.until("очередь корпуса заполнена", Duration.ofSeconds(10), () -> read.get() == bound);
+        TimeUnit.MILLISECONDS.sleep(300);
+        Assert.assertEquals(read.get(), bound, "Пока сессии заняты, корпус не должен читаться дальше");
+
+        search.gate.countDown();
+        CorpusRunner.Summary summary = run.get(20, TimeUnit.SECONDS);
+
+        Assert.assertEquals(read.get(), 100);
+        Assert.assertEquals(search.queries.size(), 100);
+        Assert.assertEquals(summary.getProblemCount(), 0, summary.toString());
+    }
+
+    @Test(timeOut = 30_000)
+    public void shouldFailInsteadOfWaitingWhenAllWorkersDied() throws Exception {
+        writeCorpus(IntStream.range(0, 50).mapToObj(i -> "Статья " + i + ",Статья " + i)
+                .collect(Collectors.toList()));
+        CorpusRunner runner = new CorpusRunner(THREADS, () -> {
+            throw new AssertionError("Сессия не создается");
+        }, search -> { }, 0);
+
+        IllegalStateException failure;
+        try (SearchCorpus corpus = SearchCorpus.open(directory.resolve("queries.csv"));
+             CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            failure = Assert.expectThrows(IllegalStateException.class, () -> runner.run(corpus, log));
+        }
+
+        Assert.assertTrue(failure.getMessage().contains("завершились досрочно"), failure.getMessage());
+    }
+
+    /**
+     * Выполняет корпус на поиске-заглушке, считая прочитанные строки корпуса.
+     */
+    private CorpusRunner.Summary run(FakeSearch search, AtomicInteger read) throws IOException, InterruptedException {
+        CorpusRunner runner = new CorpusRunner(THREADS, () -> {
+            search.acquired.incrementAndGet();
+            return search;
+        }, session -> search.released.incrementAndGet(), 0);
+        try (SearchCorpus corpus = SearchCorpus.open(directory.resolve("queries.csv"));
+             CorpusResultLog log = CorpusResultLog.open(logFile, true)) {
+            return runner.run(corpus.getName(), counting(corpus, read), log);
+        }
+    }
+
+    private void writeCorpus(List<String> lines) throws IOException {
+        Files.write(directory.resolve("queries.csv"), lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Итератор корпуса, считающий прочитанные строки.
+     */
+    private static Iterator<SearchCorpus.Row> counting(SearchCorpus corpus, AtomicInteger read) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return corpus.hasNext();
+            }
+
+            @Override
+            public SearchCorpus.Row next() {
+                read.incrementAndGet();
+                return corpus.next();
+            }
+        };
+    }
+
+    /**
+     * Поиск-заглушка: заголовок статьи совпадает с запросом, кроме запроса «Омск».
+     * Пока {@link #gate} закрыт, поиск не завершается.
+     */
+    private static final class FakeSearch implements WikipediaSearch {
+
+        private final Queue<String> queries = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger acquired = new AtomicInteger();
+        private final AtomicInteger released = new AtomicInteger();
+        private final ThreadLocal<String> title = new ThreadLocal<>();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public void search(String searchQuery) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            queries.add(searchQuery);
+            title.set("Омск".equals(searchQuery) ? "Омск (значения)" : searchQuery);
+        }
+
+        @Override
+        public String getArticleTitle() {
+            return title.get();
+        }
+
+        @Override
+        public void openRandomArticle() {
+        }
+
+        @Override
+        public boolean isSearchAvailable() {
+            return true;
+        }
+    }
+}
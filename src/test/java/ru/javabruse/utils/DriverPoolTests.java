@@ -0,0 +1,118 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Проверки очистки сессии {@link DriverPool} между арендами на драйвере-заглушке,
+ * который записывает полученные команды.
+ */
+public class DriverPoolTests {
+
+    private static final String BASE_URL = "https://ru.wikipedia.org/";
+
+    @Test
+    public void shouldClearStateBeforeOpeningBaseUrl() {
+        RecordingDriver recording = new RecordingDriver();
+        DriverPool<WebDriver> pool = new DriverPool<>(() -> recording.driver, BASE_URL, 1);
+        try {
+            WebDriver driver = pool.lease(Duration.ofSeconds(1));
+            recording.commands.clear();
+
+            pool.release(driver);
+
+            Assert.assertEquals(recording.commands, List.of("deleteAllCookies", "executeScript", "get " + BASE_URL),
+                    "Cookies и storage прошлого теста должны быть очищены до загрузки базового адреса");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldKeepWindowTheSessionWasCreatedWith() {
+        RecordingDriver recording = new RecordingDriver();
+        DriverPool<WebDriver> pool = new DriverPool<>(() -> recording.driver, BASE_URL, 1);
+        try {
+            WebDriver driver = pool.lease(Duration.ofSeconds(1));
+            // Тест открыл вкладку, и она оказалась первой в наборе вкладок
+            recording.handles.clear();
+            recording.handles.add("popup");
+            recording.handles.add("main");
+            recording.current = "popup";
+            recording.commands.clear();
+
+            pool.release(driver);
+
+            Assert.assertEquals(recording.handles, Set.of("main"), "Должна остаться исходная вкладка сессии");
+            Assert.assertEquals(recording.commands.subList(0, 3), List.of("switchTo popup", "close popup", "switchTo main"),
+                    "Закрываться должна только открытая тестом вкладка");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Драйвер-заглушка с вкладками, записывающий команды очистки и навигации.
+     */
+    private static final class RecordingDriver {
+
+        private final List<String> commands = new ArrayList<>();
+        private final Set<String> handles = new LinkedHashSet<>(List.of("main"));
+        private String current = "main";
+        private final WebDriver driver;
+
+        private RecordingDriver() {
+            ClassLoader loader = DriverPoolTests.class.getClassLoader();
+            WebDriver.Options options = (WebDriver.Options) Proxy.newProxyInstance(loader,
+                    new Class<?>[]{WebDriver.Options.class}, (proxy, method, args) -> {
+                        commands.add(method.getName());
+                        return null;
+                    });
+            WebDriver.TargetLocator[] targetLocator = new WebDriver.TargetLocator[1];
+            driver = (WebDriver) Proxy.newProxyInstance(loader,
+                    new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "toString":
+                                return "recording-driver";
+                            case "getWindowHandle":
+                                return current;
+                            case "getWindowHandles":
+                                return new LinkedHashSet<>(handles);
+                            case "switchTo":
+                                return targetLocator[0];
+                            case "close":
+                                commands.add("close " + current);
+                                handles.remove(current);
+                                return null;
+                            case "manage":
+                                return options;
+                            case "get":
+                                commands.add("get " + args[0]);
+                                return null;
+                            default:
+                                commands.add(method.getName());
+                                return null;
+                        }
+                    });
+            targetLocator[0] = (WebDriver.TargetLocator) Proxy.newProxyInstance(loader,
+                    new Class<?>[]{WebDriver.TargetLocator.class}, (proxy, method, args) -> {
+                        current = (String) args[0];
+                        commands.add("switchTo " + current);
+                        return driver;
+                    });
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Проверки фоновой записи {@link FailureArtifacts} с драйвером-заглушкой:
+ * запись в потоке теста при заполненной очереди и ожидание записи в {@link FailureArtifacts#flush()}.
+ */
+public class FailureArtifactsTests {
+
+    private static final byte[] SCREENSHOT = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3};
+    private static final String PAGE_SOURCE = "<html><body>Заглавная страница</body></html>";
+
+    private Path directory;
+
+    @BeforeMethod
+    public void useTemporaryDirectory() throws IOException {
+        // Материалы других тестов записываются в прежний каталог до смены настроек
+        FailureArtifacts.flush();
+        directory = Files.createTempDirectory("failure-artifacts");
+        System.setProperty("artifacts.dir", directory.toString());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restoreSettings() throws IOException {
+        FailureArtifacts.flush();
+        System.clearProperty("artifacts.dir");
+        System.clearProperty("artifacts.queue");
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test(timeOut = 30_000)
+    public void shouldWriteInCallerThreadWhenQueueIsFull() throws Exception {
+        System.setProperty("artifacts.queue", "1");
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        FailureArtifacts.writer().execute(() -> {
+            writerBusy.countDown();
+            try {
+                releaseWriter.await(20, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writerBusy.await();
+
+        FailureArtifacts.save(FailureArtifacts.grab(stubDriver(), "queued"));
+        FailureArtifacts.save(FailureArtifacts.grab(stubDriver(), "writtenByCaller"));
+
+        // Фоновый поток занят, а единственное место в очереди занял первый набор
+        Assert.assertEquals(savedTestNames(), List.of("writtenByCaller"),
+                "При заполненной очереди набор должен быть записан до возврата из save");
+
+        releaseWriter.countDown();
+        FailureArtifacts.flush();
+
+        Assert.assertEquals(savedTestNames(), List.of("queued", "writtenByCaller"),
+                "После flush должны быть записаны все наборы");
+    }
+
+    @Test(timeOut = 30_000)
+    public void flushShouldWaitForAllArtifacts() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            FailureArtifacts.save(FailureArtifacts.grab(stubDriver(), "test" + i));
+        }
+
+        FailureArtifacts.flush();
+
+        Assert.assertEquals(savedTestNames(), List.of("test0", "test1", "test2", "test3", "test4"),
+                "flush должен дождаться записи всех наборов");
+        for (Path saved : savedDirectories()) {
+            Assert.assertEquals(Files.readAllBytes(saved.resolve("screenshot.png")), SCREENSHOT,
+                    "Снимок экрана сохраняется без сжатия");
+            try (InputStream source = new GZIPInputStream(Files.newInputStream(saved.resolve("page-source.html.gz")))) {
+                Assert.assertEquals(new String(source.readAllBytes(), StandardCharsets.UTF_8), PAGE_SOURCE,
+                        "Исходный код страницы сохраняется в gzip");
+            }
+        }
+    }
+
+    private List<Path> savedDirectories() throws IOException {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Имена тестов из каталогов вида {@code <тест>-<время>}.
+     */
+    private List<String> savedTestNames() throws IOException {
+        return savedDirectories().stream()
+                .map(saved -> saved.getFileName().toString())
+                .map(name -> name.substring(0, name.lastIndexOf('-')))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Драйвер-заглушка: возвращает снимок экрана и исходный код, журналы недоступны.
+     */
+    private static WebDriver stubDriver() {
+        return (WebDriver) Proxy.newProxyInstance(FailureArtifactsTests.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, TakesScreenshot.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getScreenshotAs":
+                            return SCREENSHOT.clone();
+                        case "getPageSource":
+                            return PAGE_SOURCE;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,133 @@
+package ru.javabruse.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Проверки {@link FixtureServer}: ответы имитации Википедии записываются,
+ * а затем воспроизводятся при остановленной имитации.
+ */
+public class FixtureServerTests {
+
+    private static final String ARTICLE = "/wiki/Links";
+    private static final String SEARCH = "/w/index.php?search=Moscow";
+    private static final String EXTERNAL_IMAGE = "https://upload.wikimedia.org/wikipedia/logo.png";
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    private Path store;
+
+    @BeforeMethod
+    public void createStore() throws IOException {
+        store = Files.createTempDirectory("fixtures");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteStore() throws IOException {
+        try (Stream<Path> files = Files.walk(store)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void shouldReplayRecordingWithUpstreamStopped() throws Exception {
+        URI upstreamUrl;
+        String recordedArticle;
+        try (LinkingStubServer upstream = new LinkingStubServer();
+             FixtureServer recorder = new FixtureServer(store, FixtureServer.Mode.RECORD,
+                     URI.create(upstream.getBaseUrl())).start()) {
+            upstreamUrl = URI.create(upstream.getBaseUrl());
+            String local = URI.create(recorder.getBaseUrl()).getAuthority();
+
+            HttpResponse<String> article = get(recorder, ARTICLE);
+            Assert.assertEquals(article.statusCode(), 200);
+            Assert.assertTrue(article.body().contains("href=\"http://" + local + "/wiki/Moscow\""),
+                    "Абсолютная ссылка должна вести на сервер фикстур: " + article.body());
+            Assert.assertTrue(article.body().contains("src=\"//" + local + "/static/logo.svg\""),
+                    "Протокольно-относительная ссылка должна вести на сервер фикстур: " + article.body());
+            Assert.assertTrue(article.body().contains(EXTERNAL_IMAGE), "Ссылки на другие хосты не меняются");
+            Assert.assertEquals(get(recorder, SEARCH).headers().firstValue("Location").orElse(""),
+                    "http://" + local + "/wiki/Moscow");
+            recordedArticle = article.body().replace(local, "");
+        }
+        Assert.assertEquals(storedFileCount(), 4, "Каждый запрос записывается парой файлов");
+
+        try (FixtureServer replay = new FixtureServer(store, FixtureServer.Mode.REPLAY, upstreamUrl).start()) {
+            String local = URI.create(replay.getBaseUrl()).getAuthority();
+
+            HttpResponse<String> article = get(replay, ARTICLE);
+            Assert.assertEquals(article.statusCode(), 200, "Ответ должен воспроизводиться без исходного сайта");
+            Assert.assertEquals(article.body().replace(local, ""), recordedArticle);
+            Assert.assertTrue(article.body().contains("href=\"http://" + local + "/wiki/Moscow\""), article.body());
+            Assert.assertEquals(article.headers().firstValue("Content-Type").orElse(""), "text/html; charset=UTF-8");
+
+            HttpResponse<String> search = get(replay, SEARCH);
+            Assert.assertEquals(search.statusCode(), 302);
+            Assert.assertEquals(search.headers().firstValue("Location").orElse(""), "http://" + local + "/wiki/Moscow",
+                    "Перенаправление должно вести на сервер фикстур");
+
+            Assert.assertEquals(get(replay, "/w/index.php?search=Kazan").statusCode(), 404,
+                    "Незаписанный запрос с другими параметрами не должен совпадать с записанным");
+        }
+        Assert.assertEquals(storedFileCount(), 4, "Воспроизведение не должно менять хранилище");
+    }
+
+    private HttpResponse<String> get(FixtureServer server, String target) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.getBaseUrl()).resolve(target)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private long storedFileCount() throws IOException {
+        try (Stream<Path> files = Files.list(store)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Имитация Википедии со статьей, ссылающейся на сам сайт абсолютным
+     * и протокольно-относительным адресом и на изображение другого хоста,
+     * и с поиском, перенаправляющим по абсолютному адресу.
+     */
+    private static final class LinkingStubServer extends StubWikipediaServer {
+
+        @Override
+        protected void handle(HttpExchange exchange) throws IOException {
+            String origin = getBaseUrl().substring(0, getBaseUrl().length() - 1);
+            String path = exchange.getRequestURI().getPath();
+            try {
+                if (ARTICLE.equals(path)) {
+                    send(exchange, 200, "text/html; charset=UTF-8", "<html><body>"
+                            + "<a href=\"" + origin + "/wiki/Moscow\">Moscow</a>"
+                            + "<img src=\"" + origin.substring("http:".length()) + "/static/logo.svg\">"
+                            + "<img src=\"" + EXTERNAL_IMAGE + "\">"
+                            + "</body></html>");
+                } else if ("/w/index.php".equals(path)) {
+                    exchange.getResponseHeaders().set("Location", origin + "/wiki/Moscow");
+                    exchange.sendResponseHeaders(302, -1);
+                } else {
+                    super.handle(exchange);
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+}
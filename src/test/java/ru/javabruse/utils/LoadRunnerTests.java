@@ -0,0 +1,63 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.json.Json;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Короткий нагрузочный прогон {@link LoadRunner} через HTTP-реализацию
+ * против {@link StubWikipediaServer}: отчет, пропускная способность и нарушение порога.
+ */
+public class LoadRunnerTests {
+
+    private static final List<String> PROPERTIES = List.of("wikipedia.base.url", "test.mode", "load.sla.p95Ms");
+
+    @AfterMethod(alwaysRun = true)
+    public void clearProperties() {
+        PROPERTIES.forEach(System::clearProperty);
+    }
+
+    @Test(timeOut = 60_000)
+    public void shouldReportStubRunAndDetectSlaViolation() throws Exception {
+        boolean slaMet;
+        Duration elapsed;
+        try (StubWikipediaServer stub = new StubWikipediaServer()) {
+            System.setProperty("wikipedia.base.url", stub.getBaseUrl());
+            System.setProperty("test.mode", "api");
+            // Сценарий не может выполниться мгновенно, поэтому порог заведомо нарушается
+            System.setProperty("load.sla.p95Ms", "0");
+
+            LoadRunner runner = new LoadRunner(2, Duration.ofSeconds(1), Duration.ofMillis(20),
+                    Duration.ofSeconds(1), List.of("Россия", "Москва"));
+            elapsed = runner.run();
+            slaMet = runner.report(elapsed);
+        }
+
+        Assert.assertFalse(slaMet, "Нарушенный порог p95 должен провалить прогон");
+        Map<String, Object> report = new Json().toType(
+                new String(Files.readAllBytes(Paths.get("target", "load-report.json")), StandardCharsets.UTF_8),
+                Json.MAP_TYPE);
+        long journeys = ((Number) report.get("journeys")).longValue();
+        long measuredJourneys = ((Number) report.get("measuredJourneys")).longValue();
+        double measuredSeconds = ((Number) report.get("measuredSeconds")).doubleValue();
+
+        Assert.assertEquals(((Number) report.get("errors")).longValue(), 0L, "Ошибки: " + report.get("errorTypes"));
+        Assert.assertTrue(journeys > measuredJourneys && measuredJourneys > 0,
+                "Первый пользователь выполняет сценарии во время нарастания, и они не учитываются: " + report);
+        Assert.assertEquals(measuredSeconds, (elapsed.toMillis() - 1000) / 1000.0, 0.001);
+        Assert.assertEquals(((Number) report.get("journeysPerSecond")).doubleValue(),
+                measuredJourneys / measuredSeconds, 1e-9);
+        Assert.assertEquals(((Map<?, ?>) ((Map<?, ?>) report.get("steps")).get("journey")).get("count"),
+                report.get("journeys"), "Каждый успешный сценарий попадает в гистограмму");
+        Assert.assertTrue(report.get("slaViolations").toString().contains("p95 сценария"),
+                "Нарушение должно попасть в отчет: " + report.get("slaViolations"));
+    }
+}
@@ -0,0 +1,156 @@
+package ru.javabruse.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Проверки плана шардов {@link ShardPlanner#plan}: баланс LPT и одинаковый план во всех JVM.
+ */
+public class ShardPlannerTests {
+
+    @Test
+    public void shouldBalanceShardsWithinLongestTest() throws IOException {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 60; i++) {
+            durations.put("Tests#test" + i, 1_000L + random.nextInt(30_000));
+        }
+        TestTimings timings = timings(durations);
+
+        for (int shardCount = 2; shardCount <= 5; shardCount++) {
+            List<ShardPlanner.Shard> shards = ShardPlanner.plan(once(durations.keySet()), timings, shardCount);
+
+            long total = durations.values().stream().mapToLong(Long::longValue).sum();
+            long longest = Collections.max(durations.values());
+            long heaviest = shards.stream().mapToLong(ShardPlanner.Shard::getExpectedMillis).max().getAsLong();
+            long lightest = shards.stream().mapToLong(ShardPlanner.Shard::getExpectedMillis).min().getAsLong();
+            // LPT: самый загруженный шард отличается от самого свободного не больше чем на один тест
+            Assert.assertTrue(heaviest - lightest <= longest, String.format(
+                    "%d шардов: разброс %d мс больше самого долгого теста %d мс", shardCount, heaviest - lightest, longest));
+            Assert.assertTrue(heaviest <= total / shardCount + longest,
+                    "Самый загруженный шард не должен превышать среднее больше чем на один тест");
+            assertEveryTestPlannedOnce(shards, durations.keySet());
+        }
+    }
+
+    @Test
+    public void shouldPlaceLongestTestsIntoLeastLoadedShard() throws IOException {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("Tests#a", 8_000L);
+        durations.put("Tests#b", 7_000L);
+        durations.put("Tests#c", 6_000L);
+        durations.put("Tests#d", 5_000L);
+        durations.put("Tests#e", 4_000L);
+
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(once(durations.keySet()), timings(durations), 2);
+
+        Assert.assertEquals(new ArrayList<>(shards.get(0).getTestIds()), List.of("Tests#a", "Tests#d", "Tests#e"));
+        Assert.assertEquals(new ArrayList<>(shards.get(1).getTestIds()), List.of("Tests#b", "Tests#c"));
+        Assert.assertEquals(shards.get(0).getExpectedMillis(), 17_000L);
+        Assert.assertEquals(shards.get(1).getExpectedMillis(), 13_000L);
+    }
+
+    @Test
+    public void shouldBuildSamePlanRegardlessOfMethodOrder() throws IOException {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        for (int i = 0; i < 40; i++) {
+            // Много одинаковых длительностей: порядок внутри них не должен зависеть от входа
+            durations.put("Tests#test" + i, 1_000L * (i % 4 + 1));
+        }
+        TestTimings timings = timings(durations);
+        List<String> testIds = new ArrayList<>(durations.keySet());
+        List<List<String>> expected = testIdsByShard(ShardPlanner.plan(once(testIds), timings, 3));
+
+        for (long seed = 1; seed <= 10; seed++) {
+            Collections.shuffle(testIds, new Random(seed));
+            Assert.assertEquals(testIdsByShard(ShardPlanner.plan(once(testIds), timings, 3)), expected,
+                    "План должен совпадать при любом порядке тестов, порядок " + testIds);
+        }
+    }
+
+    @Test
+    public void shouldKeepDependentTestsInOneShard() throws IOException {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("Tests#setUpData", 9_000L);
+        durations.put("Tests#checkData", 1_000L);
+        durations.put("Tests#cleanUpData", 1_000L);
+        durations.put("Tests#other", 8_000L);
+        durations.put("Tests#another", 7_000L);
+        Map<String, List<String>> dependencies = Map.of(
+                "Tests#checkData", List.of("Tests#setUpData"),
+                "Tests#cleanUpData", List.of("Tests#checkData"));
+
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(once(durations.keySet()), dependencies,
+                timings(durations), 3);
+
+        ShardPlanner.Shard withSetUp = shards.stream()
+                .filter(shard -> shard.getTestIds().contains("Tests#setUpData")).findFirst().orElseThrow();
+        Assert.assertEquals(new ArrayList<>(withSetUp.getTestIds()),
+                List.of("Tests#checkData", "Tests#cleanUpData", "Tests#setUpData"),
+                "Цепочка зависимых тестов должна целиком попасть в один шард");
+        Assert.assertEquals(withSetUp.getExpectedMillis(), 11_000L);
+        assertEveryTestPlannedOnce(shards, durations.keySet());
+    }
+
+    @Test
+    public void shouldEstimateTestsWithoutHistoryByMedian() throws IOException {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("Tests#fast", 1_000L);
+        durations.put("Tests#medium", 3_000L);
+        durations.put("Tests#slow", 9_000L);
+        Map<String, Integer> invocations = once(durations.keySet());
+        invocations.put("Tests#new", 2);
+
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(invocations, timings(durations), 1);
+
+        // Новый тест оценивается медианой 3000 мс на каждый из двух экземпляров
+        Assert.assertEquals(shards.get(0).getExpectedMillis(), 1_000L + 3_000L + 9_000L + 2 * 3_000L);
+    }
+
+    private static void assertEveryTestPlannedOnce(List<ShardPlanner.Shard> shards, Iterable<String> testIds) {
+        List<String> planned = shards.stream().flatMap(shard -> shard.getTestIds().stream()).collect(Collectors.toList());
+        TreeSet<String> expected = new TreeSet<>();
+        testIds.forEach(expected::add);
+        Assert.assertEquals(planned.size(), expected.size(), "Каждый тест должен попасть ровно в один шард");
+        Assert.assertEquals(new TreeSet<>(planned), expected, "Все тесты должны быть распределены");
+    }
+
+    private static List<List<String>> testIdsByShard(List<ShardPlanner.Shard> shards) {
+        return shards.stream().map(shard -> new ArrayList<>(shard.getTestIds())).collect(Collectors.toList());
+    }
+
+    private static Map<String, Integer> once(Iterable<String> testIds) {
+        Map<String, Integer> invocations = new LinkedHashMap<>();
+        testIds.forEach(testId -> invocations.put(testId, 1));
+        return invocations;
+    }
+
+    /**
+     * Хранилище длительностей, загруженное из файла в формате {@link TestTimings}.
+     */
+    private static TestTimings timings(Map<String, Long> durations) throws IOException {
+        Path file = Files.createTempFile("test-timings", ".properties");
+        try {
+            List<String> lines = durations.entrySet().stream()
+                    .map(entry -> entry.getKey() + "=" + entry.getValue())
+                    .collect(Collectors.toList());
+            Files.write(file, lines, StandardCharsets.UTF_8);
+            return TestTimings.load(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
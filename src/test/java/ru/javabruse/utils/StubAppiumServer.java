@@ -0,0 +1,569 @@
+package ru.javabruse.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Локальная имитация сервера Appium с приложением Wikipedia для проверки мобильных
+ * Page Object без эмулятора.
+ *
+ * <p>Реализует часть протокола W3C WebDriver, которой пользуется {@code WikipediaAppPage}:
+ * создание сессии, поиск элементов, клики, ввод текста, исходный код экрана, возврат назад,
+ * управление приложением ({@code terminate_app}, {@code activate_app}, {@code app_state})
+ * и команды {@code mobile: deepLink} и {@code mobile: clearApp}, а также {@code /status},
+ * по которому {@code HealthGate} проверяет доступность сервера. Приложение моделируется
+ * экранами onboarding, главный, поиск и статья. Каждая команда выполняется не быстрее
+ * заданной задержки, чтобы число обращений к серверу отражалось во времени сценария.
+ *
+ * <p>Сервер обслуживает несколько устройств одновременно: устройство выбирается capability
+ * {@code appium:udid}, у каждого свое состояние приложения. Как и настоящий UiAutomator2,
+ * сервер отказывает в создании сессии, если устройство или {@code appium:systemPort}
+ * уже заняты другой сессией.
+ */
+public class StubAppiumServer implements AutoCloseable {
+
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final String APP_ID_PREFIX = "org.wikipedia.alpha:id/";
+    private static final String ARTICLE_PATH = "/wiki/";
+
+    private static final String SEARCH_CONTAINER = "search_container";
+    private static final String SEARCH_INPUT = "search_src_text";
+    private static final String SEARCH_RESULT = "page_list_item_title";
+    private static final String SKIP_ONBOARDING = "fragment_onboarding_skip_button";
+    private static final String NAVIGATE_UP = "Navigate up";
+    private static final String ARTICLE_TITLE = "article_title";
+    private static final String DEFAULT_UDID = "emulator-5554";
+
+    private enum Screen { ONBOARDING, MAIN, SEARCH, ARTICLE, CLOSED }
+
+    private final HttpServer server;
+    private final Duration commandLatency;
+    private final AtomicInteger commandCount = new AtomicInteger();
+
+    private final Map<String, Device> devices = new HashMap<>();
+    private final Map<String, Session> sessions = new HashMap<>();
+    private int maxConcurrentSessions;
+    private String lastDeepLink;
+
+    // Число выполняемых команд по сессиям; задержка команды выполняется вне блокировки сервера
+    private final Map<String, Integer> commandsInFlight = new HashMap<>();
+    private int maxBusySessions;
+
+    public StubAppiumServer() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * @param commandLatency задержка ответа на каждую команду, имитирующая сеть и устройство
+     */
+    public StubAppiumServer(Duration commandLatency) {
+        this.commandLatency = commandLatency;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось запустить имитацию Appium", e);
+        }
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-appium");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+    }
+
+    /**
+     * Адрес сервера для {@code appium.url}, например {@code http://127.0.0.1:53011}.
+     */
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Количество команд, полученных сервером.
+     */
+    public int getCommandCount() {
+        return commandCount.get();
+    }
+
+    /**
+     * Адрес последней ссылки, открытой через {@code mobile: deepLink}, или {@code null}.
+     */
+    public synchronized String getLastDeepLink() {
+        return lastDeepLink;
+    }
+
+    /**
+     * Наибольшее число одновременно открытых сессий за время работы сервера.
+     */
+    public synchronized int getMaxConcurrentSessions() {
+        return maxConcurrentSessions;
+    }
+
+    /**
+     * Наибольшее число сессий, команды которых выполнялись одновременно. В отличие от
+     * {@link #getMaxConcurrentSessions()} показывает, что сессии действительно работали параллельно,
+     * а не только были открыты в одно время.
+     */
+    public int getMaxBusySessions() {
+        synchronized (commandsInFlight) {
+            return maxBusySessions;
+        }
+    }
+
+    /**
+     * Устройства, на которых создавались сессии.
+     */
+    public synchronized Set<String> getDeviceUdids() {
+        return new TreeSet<>(devices.keySet());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+        String sessionId = path.length > 1 && "session".equals(path[0]) ? path[1] : null;
+        startCommand(sessionId);
+        try {
+            commandCount.incrementAndGet();
+            pause();
+            String method = exchange.getRequestMethod();
+            Map<String, Object> body = readBody(exchange);
+
+            Object value;
+            synchronized (this) {
+                if ("GET".equals(method) && path.length == 1 && "status".equals(path[0])) {
+                    value = Map.of("ready", true, "message", "Имитация Appium готова");
+                } else if ("POST".equals(method) && path.length == 1 && "session".equals(path[0])) {
+                    value = newSession(body);
+                } else {
+                    value = sessionCommand(method, path, body);
+                }
+            }
+            if (value instanceof CommandError) {
+                CommandError error = (CommandError) value;
+                sendJson(exchange, error.status, Map.of("value", Map.of(
+                        "error", error.error, "message", error.message, "stacktrace", "")));
+            } else {
+                sendJson(exchange, 200, Collections.singletonMap("value", value));
+            }
+        } finally {
+            finishCommand(sessionId);
+            exchange.close();
+        }
+    }
+
+    private void startCommand(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        synchronized (commandsInFlight) {
+            commandsInFlight.merge(sessionId, 1, Integer::sum);
+            maxBusySessions = Math.max(maxBusySessions, commandsInFlight.size());
+        }
+    }
+
+    private void finishCommand(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        synchronized (commandsInFlight) {
+            commandsInFlight.computeIfPresent(sessionId, (id, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private Object newSession(Map<String, Object> body) {
+        Map<String, Object> requested = requestedCapabilities(body);
+        String udid = String.valueOf(requested.getOrDefault("appium:udid", DEFAULT_UDID));
+        Object systemPort = requested.get("appium:systemPort");
+        for (Session session : sessions.values()) {
+            if (session.device.udid.equals(udid)) {
+                return new CommandError(500, "session not created", "Устройство " + udid + " занято другой сессией");
+            }
+            if (systemPort != null && systemPort.equals(session.systemPort)) {
+                return new CommandError(500, "session not created",
+                        "systemPort " + systemPort + " уже используется устройством " + session.device.udid);
+            }
+        }
+        Device device = devices.computeIfAbsent(udid, Device::new);
+        String sessionId = UUID.randomUUID().toString();
+        sessions.put(sessionId, new Session(device, systemPort));
+        maxConcurrentSessions = Math.max(maxConcurrentSessions, sessions.size());
+        if (device.screen == Screen.CLOSED) {
+            device.screen = Screen.MAIN;
+        }
+        Map<String, Object> capabilities = new HashMap<>(requested);
+        capabilities.put("platformName", "Android");
+        capabilities.put("automationName", "UiAutomator2");
+        capabilities.put("appPackage", "org.wikipedia.alpha");
+        capabilities.put("appium:udid", udid);
+        return Map.of("sessionId", sessionId, "capabilities", capabilities);
+    }
+
+    /**
+     * Объединяет {@code alwaysMatch} и первый вариант {@code firstMatch} из запроса новой сессии.
+     */
+    private static Map<String, Object> requestedCapabilities(Map<String, Object> body) {
+        Map<String, Object> requested = new HashMap<>();
+        Object capabilities = body.get("capabilities");
+        if (capabilities instanceof Map) {
+            Object alwaysMatch = ((Map<?, ?>) capabilities).get("alwaysMatch");
+            Object firstMatch = ((Map<?, ?>) capabilities).get("firstMatch");
+            if (alwaysMatch instanceof Map) {
+                ((Map<?, ?>) alwaysMatch).forEach((key, value) -> requested.put(String.valueOf(key), value));
+            }
+            if (firstMatch instanceof List && !((List<?>) firstMatch).isEmpty()) {
+                ((Map<?, ?>) ((List<?>) firstMatch).get(0))
+                        .forEach((key, value) -> requested.put(String.valueOf(key), value));
+            }
+        }
+        return requested;
+    }
+
+    private Object sessionCommand(String method, String[] path, Map<String, Object> body) {
+        Session session = path.length < 2 || !"session".equals(path[0]) ? null : sessions.get(path[1]);
+        if (session == null) {
+            return new CommandError("invalid session id", "Сессия не найдена");
+        }
+        String command = String.join("/", Arrays.copyOfRange(path, 2, path.length));
+        Device device = session.device;
+
+        if ("DELETE".equals(method) && command.isEmpty()) {
+            sessions.remove(path[1]);
+            return null;
+        }
+        switch (command) {
+            case "timeouts":
+                return "GET".equals(method) ? Map.of("implicit", 0, "pageLoad", 300000, "script", 30000) : null;
+            case "source":
+                return pageSource(device);
+            case "back":
+                back(device);
+                return null;
+            case "element":
+                return findElements(device, body).stream().findFirst()
+                        .<Object>map(StubAppiumServer::elementReference)
+                        .orElseGet(() -> new CommandError("no such element", "Элемент не найден: " + body));
+            case "elements":
+                return findElements(device, body).stream().map(StubAppiumServer::elementReference)
+                        .collect(Collectors.toList());
+            case "execute/sync":
+                return executeScript(device, body);
+            case "appium/device/terminate_app":
+                device.screen = Screen.CLOSED;
+                return true;
+            case "appium/device/activate_app":
+                if (device.screen == Screen.CLOSED) {
+                    device.screen = Screen.MAIN;
+                }
+                return null;
+            case "appium/device/app_state":
+                return device.screen == Screen.CLOSED ? 1 : 4;
+            default:
+                return elementCommand(device, method, path, body);
+        }
+    }
+
+    private Object elementCommand(Device device, String method, String[] path, Map<String, Object> body) {
+        if (path.length != 5 || !"element".equals(path[2])) {
+            return new CommandError("unknown command", "Команда не поддерживается: " + String.join("/", path));
+        }
+        // Клиент кодирует идентификатор элемента в пути как параметр формы: пробел приходит как '+'
+        String element = URLDecoder.decode(path[3], StandardCharsets.UTF_8);
+        if (!findElements(device, null).contains(element)) {
+            return new CommandError("stale element reference", "Элемент больше не отображается: " + element);
+        }
+        switch (path[4]) {
+            case "click":
+                click(device, element);
+                return null;
+            case "value":
+                device.searchText = String.valueOf(body.getOrDefault("text", ""));
+                return null;
+            case "text":
+                return text(device, element);
+            case "displayed":
+                return true;
+            default:
+                return new CommandError("unknown command", "Команда элемента не поддерживается: " + path[4]);
+        }
+    }
+
+    /**
+     * Возвращает видимые на текущем экране элементы, подходящие под локатор,
+     * или все видимые элементы, если локатор не задан.
+     */
+    private List<String> findElements(Device device, Map<String, Object> locator) {
+        List<String> visible = new ArrayList<>();
+        switch (device.screen) {
+            case ONBOARDING:
+                visible.add(SKIP_ONBOARDING);
+                break;
+            case MAIN:
+                visible.add(SEARCH_CONTAINER);
+                break;
+            case SEARCH:
+                visible.add(SEARCH_INPUT);
+                if (!device.searchText.isEmpty()) {
+                    visible.add(SEARCH_RESULT);
+                }
+                break;
+            case ARTICLE:
+                visible.add(ARTICLE_TITLE);
+                visible.add(NAVIGATE_UP);
+                break;
+            default:
+                break;
+        }
+        if (locator == null) {
+            return visible;
+        }
+        String target = resolveLocator(String.valueOf(locator.get("using")), String.valueOf(locator.get("value")));
+        return visible.contains(target) ? Collections.singletonList(target) : Collections.emptyList();
+    }
+
+    /**
+     * Приводит локатор к имени элемента имитации. Локаторы по id могут прийти
+     * как стратегия {@code id} или как CSS-селектор {@code #...}, в зависимости от клиента.
+     */
+    private static String resolveLocator(String using, String value) {
+        switch (using) {
+            case "accessibility id":
+                return value;
+            case "xpath":
+            case "-android uiautomator":
+                return value.contains("TextView") ? ARTICLE_TITLE : value;
+            case "css selector":
+                String id = value.startsWith("#") ? value.substring(1).replace("\\", "") : value;
+                return id.replaceAll("^\\[id=\"|\"]$", "").replace(APP_ID_PREFIX, "");
+            default:
+                return value.replace(APP_ID_PREFIX, "");
+        }
+    }
+
+    private void click(Device device, String element) {
+        switch (element) {
+            case SKIP_ONBOARDING:
+                device.screen = Screen.MAIN;
+                break;
+            case SEARCH_CONTAINER:
+                device.screen = Screen.SEARCH;
+                device.searchText = "";
+                break;
+            case SEARCH_RESULT:
+                openArticle(device, device.searchText);
+                break;
+            case NAVIGATE_UP:
+                back(device);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private String text(Device device, String element) {
+        switch (element) {
+            case ARTICLE_TITLE:
+                return device.articleTitle;
+            case SEARCH_RESULT:
+                return device.searchText;
+            case SEARCH_INPUT:
+                return device.searchText;
+            default:
+                return "";
+        }
+    }
+
+    private Object executeScript(Device device, Map<String, Object> body) {
+        String script = String.valueOf(body.get("script"));
+        List<?> args = (List<?>) body.getOrDefault("args", Collections.emptyList());
+        Map<?, ?> arguments = args.isEmpty() ? Collections.emptyMap() : (Map<?, ?>) args.get(0);
+        switch (script) {
+            case "mobile: deepLink":
+                String url = String.valueOf(arguments.get("url"));
+                int articleStart = url.indexOf(ARTICLE_PATH);
+                if (articleStart < 0) {
+                    return new CommandError("invalid argument", "Ссылка не ведет на статью: " + url);
+                }
+                lastDeepLink = url;
+                openArticle(device, URLDecoder.decode(url.substring(articleStart + ARTICLE_PATH.length()),
+                        StandardCharsets.UTF_8).replace('_', ' '));
+                return null;
+            case "mobile: clearApp":
+                device.screen = Screen.ONBOARDING;
+                return null;
+            default:
+                return new CommandError("unknown command", "Скрипт не поддерживается: " + script);
+        }
+    }
+
+    private void openArticle(Device device, String title) {
+        device.articleTitle = title;
+        device.screen = Screen.ARTICLE;
+    }
+
+    private void back(Device device) {
+        if (device.screen == Screen.ARTICLE || device.screen == Screen.SEARCH) {
+            device.screen = Screen.MAIN;
+        }
+    }
+
+    /**
+     * Иерархия экрана в формате UiAutomator2: видимые элементы в порядке отрисовки.
+     */
+    private String pageSource(Device device) {
+        StringBuilder source = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .append("<hierarchy rotation=\"0\">")
+                .append("<android.widget.FrameLayout class=\"android.widget.FrameLayout\" displayed=\"true\">");
+        for (String element : findElements(device, null)) {
+            switch (element) {
+                case SKIP_ONBOARDING:
+                    appendNode(source, "android.widget.Button", APP_ID_PREFIX + SKIP_ONBOARDING, "Skip", "");
+                    break;
+                case SEARCH_CONTAINER:
+                    appendNode(source, "android.widget.LinearLayout", APP_ID_PREFIX + SEARCH_CONTAINER, "", "");
+                    break;
+                case SEARCH_INPUT:
+                    appendNode(source, "android.widget.EditText", APP_ID_PREFIX + SEARCH_INPUT,
+                            device.searchText, "");
+                    break;
+                case SEARCH_RESULT:
+                    appendNode(source, "android.widget.TextView", APP_ID_PREFIX + SEARCH_RESULT,
+                            device.searchText, "");
+                    break;
+                case ARTICLE_TITLE:
+                    appendNode(source, "android.widget.TextView", APP_ID_PREFIX + "view_page_title_text",
+                            device.articleTitle, "");
+                    break;
+                case NAVIGATE_UP:
+                    appendNode(source, "android.widget.ImageButton", "", "", NAVIGATE_UP);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return source.append("</android.widget.FrameLayout></hierarchy>").toString();
+    }
+
+    private static void appendNode(StringBuilder source, String className, String resourceId, String text,
+                                   String contentDescription) {
+        source.append('<').append(className)
+                .append(" class=\"").append(className)
+                .append("\" resource-id=\"").append(escapeXml(resourceId))
+                .append("\" text=\"").append(escapeXml(text))
+                .append("\" content-desc=\"").append(escapeXml(contentDescription))
+                .append("\" displayed=\"true\" enabled=\"true\"/>");
+    }
+
+    private static String escapeXml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static Map<String, String> elementReference(String element) {
+        return Collections.singletonMap(ELEMENT_KEY, element);
+    }
+
+    private void pause() {
+        if (commandLatency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(commandLatency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream input = exchange.getRequestBody()) {
+            String json = new String(input.readAllBytes(), StandardCharsets.UTF_8).trim();
+            return json.isEmpty() ? Collections.emptyMap() : new Json().toType(json, Json.MAP_TYPE);
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, Object value) throws IOException {
+        byte[] bytes = new Json().toJson(value).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Состояние приложения на одном устройстве.
+     */
+    private static final class Device {
+
+        private final String udid;
+        private Screen screen = Screen.ONBOARDING;
+        private String searchText = "";
+        private String articleTitle = "";
+
+        private Device(String udid) {
+            this.udid = udid;
+        }
+    }
+
+    /**
+     * Открытая сессия: устройство и занятый ею {@code systemPort}.
+     */
+    private static final class Session {
+
+        private final Device device;
+        private final Object systemPort;
+
+        private Session(Device device, Object systemPort) {
+            this.device = device;
+            this.systemPort = systemPort;
+        }
+    }
+
+    /**
+     * Ошибка команды в формате протокола WebDriver.
+     */
+    private static final class CommandError {
+
+        private final int status;
+        private final String error;
+        private final String message;
+
+        private CommandError(String error, String message) {
+            this(404, error, message);
+        }
+
+        private CommandError(int status, String error, String message) {
+            this.status = status;
+            this.error = error;
+            this.message = message;
+        }
+    }
+}
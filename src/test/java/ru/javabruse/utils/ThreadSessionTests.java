@@ -0,0 +1,117 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Проверки {@link ThreadSession} и {@link DriverPool} без браузера: пул выдает драйверы-заглушки,
+ * а тест арендует их одновременно из нескольких потоков.
+ */
+public class ThreadSessionTests {
+
+    private static final int THREADS = 8;
+    private static final int POOL_SIZE = 4;
+    private static final AtomicInteger DRIVER_IDS = new AtomicInteger();
+
+    private final DriverPool<WebDriver> pool = new DriverPool<>(ThreadSessionTests::stubDriver, "about:blank", POOL_SIZE);
+    private final ThreadSession<WebDriver, String> session = new ThreadSession<>();
+    private final Map<WebDriver, Thread> driversInUse = new ConcurrentHashMap<>();
+    private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+    @Test(threadPoolSize = THREADS, invocationCount = 200)
+    public void shouldNeverHandOneDriverToTwoThreads() throws InterruptedException {
+        WebDriver driver = pool.lease(Duration.ofSeconds(10));
+        try {
+            String page = session.bind(driver, boundDriver -> Thread.currentThread().getName());
+            Thread other = driversInUse.putIfAbsent(driver, Thread.currentThread());
+            Assert.assertNull(other, "Драйвер " + driver + " одновременно выдан потоку " + other);
+            threadNames.add(Thread.currentThread().getName());
+
+            // Даем другим потокам время попытаться получить тот же драйвер
+            TimeUnit.MILLISECONDS.sleep(2);
+
+            Assert.assertSame(session.driver(), driver, "Поток должен видеть только свой драйвер");
+            Assert.assertEquals(session.page(), page, "Поток должен видеть только свой Page Object");
+        } finally {
+            driversInUse.remove(driver, Thread.currentThread());
+            session.unbind();
+            pool.release(driver);
+        }
+    }
+
+    @Test
+    public void shouldRejectDriverBoundInAnotherThread() throws InterruptedException {
+        WebDriver driver = stubDriver();
+        session.bind(driver, boundDriver -> "владелец");
+        ExecutorService otherThread = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> intruder = otherThread.submit(
+                    () -> new ThreadSession<WebDriver, String>().bind(driver, boundDriver -> "чужой поток"));
+            ExecutionException error = Assert.expectThrows(ExecutionException.class, intruder::get);
+            Assert.assertTrue(error.getCause() instanceof IllegalStateException,
+                    "Повторная привязка занятого драйвера должна завершаться IllegalStateException: " + error.getCause());
+        } finally {
+            otherThread.shutdownNow();
+            session.unbind();
+        }
+    }
+
+    @Test(dependsOnMethods = "shouldNeverHandOneDriverToTwoThreads")
+    public void shouldLeaseFromSeveralThreadsWithinPoolSize() {
+        System.out.println("[SESSIONS] " + ThreadSession.statistics() + "; [DRIVER POOL] " + pool.getMetrics());
+        Assert.assertTrue(threadNames.size() > 1, "Аренды должны выполняться из нескольких потоков: " + threadNames);
+        Assert.assertTrue(pool.getMetrics().getMisses() <= POOL_SIZE,
+                "Пул не должен создавать больше " + POOL_SIZE + " сессий: " + pool.getMetrics());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void shutDownDriverPool() {
+        pool.shutdown();
+    }
+
+    /**
+     * Драйвер-заглушка: одна вкладка, навигация и очистка ничего не делают.
+     */
+    private static WebDriver stubDriver() {
+        String name = "stub-driver-" + DRIVER_IDS.incrementAndGet();
+        WebDriver.Options options = (WebDriver.Options) Proxy.newProxyInstance(
+                ThreadSessionTests.class.getClassLoader(), new Class<?>[]{WebDriver.Options.class},
+                (proxy, method, args) -> null);
+        return (WebDriver) Proxy.newProxyInstance(ThreadSessionTests.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return name;
+                        case "getWindowHandle":
+                            return "main";
+                        case "getWindowHandles":
+                            return Collections.singleton("main");
+                        case "manage":
+                            return options;
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,96 @@
+package ru.javabruse.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Проверки {@link WaitPolicy.Guard} на драйвере-заглушке: нарушение политики
+ * сообщается с местом вызова там, где включается неявное ожидание и где на него полагается поиск.
+ */
+public class WaitPolicyTests {
+
+    private final List<Duration> appliedImplicitWaits = new ArrayList<>();
+
+    @AfterMethod(alwaysRun = true)
+    public void disableStrictMode() {
+        System.clearProperty("wait.policy.strict");
+    }
+
+    @Test
+    public void shouldRejectImplicitWaitWhereItIsEnabled() {
+        WebDriver driver = new WaitPolicy.Guard().decorate(stubDriver());
+        System.setProperty("wait.policy.strict", "true");
+
+        IllegalStateException violation = Assert.expectThrows(IllegalStateException.class,
+                () -> driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(5)));
+
+        Assert.assertTrue(violation.getMessage().contains("5000 мс"), violation.getMessage());
+        Assert.assertTrue(violation.getMessage().contains(WaitPolicyTests.class.getName()),
+                "Сообщение должно указывать место вызова: " + violation.getMessage());
+        Assert.assertEquals(appliedImplicitWaits, List.of(), "Неявное ожидание не должно включиться");
+        driver.findElements(By.id("search"));
+    }
+
+    @Test
+    public void shouldReportSearchesRelyingOnImplicitWait() {
+        WebDriver driver = new WaitPolicy.Guard().decorate(stubDriver());
+        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(5));
+        System.setProperty("wait.policy.strict", "true");
+
+        IllegalStateException violation = Assert.expectThrows(IllegalStateException.class,
+                () -> driver.findElements(By.id("search")));
+
+        Assert.assertTrue(violation.getMessage().contains("By.id: search"), violation.getMessage());
+        Assert.assertTrue(violation.getMessage().contains(WaitPolicyTests.class.getName()),
+                "Сообщение должно указывать место поиска: " + violation.getMessage());
+
+        System.clearProperty("wait.policy.strict");
+        driver.manage().timeouts().implicitlyWait(WaitPolicy.IMPLICIT_WAIT);
+        System.setProperty("wait.policy.strict", "true");
+        Assert.assertEquals(driver.findElements(By.id("search")), List.of(),
+                "После выключения неявного ожидания поиск разрешен");
+        Assert.assertEquals(appliedImplicitWaits, List.of(Duration.ofSeconds(5), WaitPolicy.IMPLICIT_WAIT));
+    }
+
+    /**
+     * Драйвер-заглушка без элементов, запоминающий включенные неявные ожидания.
+     */
+    private WebDriver stubDriver() {
+        ClassLoader loader = WaitPolicyTests.class.getClassLoader();
+        WebDriver.Timeouts timeouts = (WebDriver.Timeouts) Proxy.newProxyInstance(loader,
+                new Class<?>[]{WebDriver.Timeouts.class}, (proxy, method, args) -> {
+                    if ("implicitlyWait".equals(method.getName())) {
+                        appliedImplicitWaits.add((Duration) args[0]);
+                    }
+                    return proxy;
+                });
+        WebDriver.Options options = (WebDriver.Options) Proxy.newProxyInstance(loader,
+                new Class<?>[]{WebDriver.Options.class}, (proxy, method, args) -> timeouts);
+        return (WebDriver) Proxy.newProxyInstance(loader, new Class<?>[]{WebDriver.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "manage":
+                            return options;
+                        case "findElements":
+                            return Collections.emptyList();
+                        case "toString":
+                            return "stub-driver";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+}